@@ -0,0 +1,69 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 100만 건(팀 1,000개) 적재 시간 :: saveAllBatched의 batchSize별 비교
+ * 1회 적재가 측정 단위이므로 SingleShotTime, 매 iteration 전에 테이블을 비운다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class BatchInsertBenchmark {
+    private static final int TEAMS = 1_000;
+
+    @Param({"1000000"})
+    public int members;
+
+    @Param({"50", "500", "1000"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private JdbcTemplate jdbcTemplate;
+    private List<Member> input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        jdbcTemplate.execute("delete from member");
+        jdbcTemplate.execute("delete from team");
+        List<Team> teams = new ArrayList<>(TEAMS);
+        for (int i = 0; i < TEAMS; i++) {
+            teams.add(new Team("team" + i));
+        }
+        input = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            input.add(new Member("member" + i, i % 100, teams.get(i % TEAMS)));
+        }
+        teams.forEach(team -> team.getMembers().clear());//양방향 리스트 메모리는 측정 대상이 아님
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int saveAllBatched() {
+        return memberRepository.saveAllBatched(input, batchSize);
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.DataJpaApplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 :: 웹서버 없이(부하 테스트는 startWeb) 임베디드 H2(in-memory)로 기동
+ * SQL 로그, p6spy 로깅은 측정값을 왜곡하므로 끈다.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    private static final String[] DEFAULTS = {
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--logging.level.org.hibernate.SQL=warn",
+            "--logging.level.root=warn",
+            "--decorator.datasource.p6spy.enable-logging=false"
+    };
+
+    // application.yml보다 우선하도록 커맨드라인 인자로 전달
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /** 부하 테스트용 :: 임베디드 톰캣을 랜덤 포트로 기동 (local.server.port) */
+    public static ConfigurableApplicationContext startWeb(String... properties) {
+        List<String> withPort = new ArrayList<>(Arrays.asList(properties));
+        withPort.add("server.port=0");
+        return start(WebApplicationType.SERVLET, withPort.toArray(new String[0]));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> args = new ArrayList<>(Arrays.asList(DEFAULTS));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(new String[0]));
+    }
+
+    /**
+     * 팀 teams개, 회원 members개 적재 (JDBC batch, id 직접 지정)
+     * username은 "member" + (i % distinctNames) 라서 username 조건 조회 1건당 members / distinctNames 건 반환
+     */
+    public static void seed(ConfigurableApplicationContext context, int teams, int members, int distinctNames) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> teamRows = new ArrayList<>(teams);
+        for (int i = 1; i <= teams; i++) {
+            teamRows.add(new Object[]{(long) i, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teamRows);
+
+        List<Object[]> memberRows = new ArrayList<>(members);
+        for (int i = 1; i <= members; i++) {
+            memberRows.add(new Object[]{(long) i, "member" + (i % distinctNames), i % 100, (long) (i % teams) + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", memberRows);
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberProjection;
+import study.datajpa.dto.NestedClosedProjection;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * closed projection 조회 비용 :: username당 1,000건, 결과 조립까지 포함하도록 모든 getter 호출
+ * - nestedProxy : 동적 projection(findUsernameByUsername)으로 NestedClosedProjection 생성 :: Team 엔티티 전체 select + 프록시
+ * - nested : findNestedProjectionsByUsername (필요한 컬럼만 select, 불변 DTO)
+ * - memberProjectionProxy : findByNativeProjection (native 쿼리 Tuple -> 프록시, 1,000건 한 페이지)
+ * - memberProjection : findMemberProjections (필요한 컬럼만 select, 불변 DTO, 1,000건 한 페이지)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClosedProjectionBenchmark {
+    private static final String USERNAME = "member7";
+    private static final PageRequest PAGE = PageRequest.of(0, 1000);
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkContext.seed(context, 100, 100_000, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object nestedProxy() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            for (NestedClosedProjection p : memberRepository.findUsernameByUsername(USERNAME, NestedClosedProjection.class)) {
+                sb.append(p.getUsername()).append(p.getTeam().getName());
+            }
+            return sb;
+        });
+    }
+
+    @Benchmark
+    public Object nested() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            for (NestedClosedProjection p : memberRepository.findNestedProjectionsByUsername(USERNAME)) {
+                sb.append(p.getUsername()).append(p.getTeam().getName());
+            }
+            return sb;
+        });
+    }
+
+    @Benchmark
+    public Object memberProjectionProxy() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            for (MemberProjection p : memberRepository.findByNativeProjection(USERNAME, PAGE)) {
+                sb.append(p.getId()).append(p.getUsername()).append(p.getTeamName());
+            }
+            return sb;
+        });
+    }
+
+    @Benchmark
+    public Object memberProjection() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            for (MemberProjection p : memberRepository.findMemberProjections(USERNAME, PAGE)) {
+                sb.append(p.getId()).append(p.getUsername()).append(p.getTeamName());
+            }
+            return sb;
+        });
+    }
+}
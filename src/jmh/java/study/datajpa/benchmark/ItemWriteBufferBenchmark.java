@@ -0,0 +1,79 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Item;
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.ItemWriteBuffer;
+import study.datajpa.repository.ItemWriteMode;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Item 생성 처리량 (item/s) :: 생산자 스레드 8/16/32
+ * - save : ItemRepository.save (item 1건 = 트랜잭션 1번)
+ * - async : ItemWriteBuffer.write, 버퍼가 차면 생산자가 기다리므로 결국 flush 처리량에 수렴 (backpressure)
+ * - acknowledged : ItemWriteBuffer.write(ACKNOWLEDGED), batch 커밋까지 대기
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ItemWriteBufferBenchmark {
+    @Param({"save", "async", "acknowledged"})
+    public String mode;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemWriteBuffer itemWriteBuffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "datajpa.jdbc.p6spy-sample-rate=0",
+                "datajpa.item-buffer.offer-timeout=1m");//측정 중에는 거절하지 않고 기다린다.
+        itemRepository = context.getBean(ItemRepository.class);
+        itemWriteBuffer = context.getBean(ItemWriteBuffer.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void producers8() {
+        write();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void producers16() {
+        write();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void producers32() {
+        write();
+    }
+
+    private void write() {
+        Item item = new Item("item" + sequence.incrementAndGet());
+        switch (mode) {
+            case "save":
+                itemRepository.save(item);
+                break;
+            case "async":
+                itemWriteBuffer.write(item, ItemWriteMode.ASYNC);
+                break;
+            default:
+                itemWriteBuffer.write(item, ItemWriteMode.ACKNOWLEDGED);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * offset 페이징 vs keyset 페이징 :: 1페이지와 10,000페이지 비용 비교
+ * offset 방식은 페이지 깊이에 비례해서 느려지고 keyset 방식은 일정해야 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeysetPagingBenchmark {
+    private static final int PAGE_SIZE = 10;
+    private static final int ROWS = 200_000;
+
+    @Param({"0", "10000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+    private PageRequest pageRequest;
+    private MemberCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            rows.add(new Object[]{(long) i, "member" + i, i % 100});
+        }
+        jdbcTemplate.batchUpdate("insert into member (member_id, username, age) values (?, ?, ?)", rows);
+
+        pageRequest = PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "age").and(Sort.by("id")));
+        if (page > 0) {
+            // 직전 페이지 마지막 row를 커서로 사용
+            cursor = jdbcTemplate.queryForObject(
+                    "select age, member_id from member order by age desc, member_id asc limit 1 offset ?",
+                    (rs, rowNum) -> new MemberCursor(rs.getInt(1), rs.getLong(2)),
+                    page * PAGE_SIZE - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object offset() {
+        return readOnly.execute(status -> memberRepository.findAll(pageRequest));
+    }
+
+    @Benchmark
+    public Object keyset() {
+        return readOnly.execute(status -> memberRepository.findAllByKeyset(cursor, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,108 @@
+package study.datajpa.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /members 부하 테스트 :: blocking(요청 스레드에서 JDBC) vs async(JdbcExecutor) p50/p99 latency 비교
+ * clients개의 클라이언트가 응답을 받자마자 다음 요청을 보낸다. (closed loop, 동시 요청 수 = clients)
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs='1000 30'   # clients, 측정 시간(초)
+ * </pre>
+ */
+public class MemberLoadTest {
+    private static final String PATH = "/members?size=10";
+    private static final int MEMBERS = 10_000;
+    private static final int WARMUP_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        System.out.printf("%-9s %8s %8s %9s %9s %9s %9s%n", "mode", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "max(ms)");
+        for (boolean async : new boolean[]{false, true}) {
+            ConfigurableApplicationContext context = BenchmarkContext.startWeb(
+                    "datajpa.jdbc.executor.enabled=" + async,
+                    "server.tomcat.accept-count=" + clients,
+                    "datajpa.jdbc.p6spy-sample-rate=0",//운영 설정 :: p6spy, slow query 로그가 측정값을 왜곡하지 않도록
+                    "logging.level.study.datajpa.monitor=error");
+            try {
+                BenchmarkContext.seed(context, 100, MEMBERS, MEMBERS);
+                URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + PATH);
+                run(uri, clients, WARMUP_SECONDS);
+                Result result = run(uri, clients, seconds);
+                System.out.printf("%-9s %8d %8d %9.0f %9.2f %9.2f %9.2f%n", async ? "async" : "blocking",
+                        result.latencies.length, result.errors, (double) result.latencies.length / seconds,
+                        result.percentile(0.5), result.percentile(0.99), result.percentile(1.0));
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static Result run(URI uri, int clients, int seconds) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(clients, 64));
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger running = new AtomicInteger(clients);
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < clients; i++) {
+            send(httpClient, request, end, latencies, errors, running, done);
+        }
+        done.await();
+        executor.shutdown();
+        return new Result(latencies.stream().mapToLong(Long::longValue).sorted().toArray(), errors.get());
+    }
+
+    private static void send(HttpClient httpClient, HttpRequest request, long end, ConcurrentLinkedQueue<Long> latencies,
+                             AtomicLong errors, AtomicInteger running, CountDownLatch done) {
+        if (System.nanoTime() >= end) {
+            if (running.decrementAndGet() == 0) {
+                done.countDown();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            if (e != null || response.statusCode() != 200) {
+                errors.incrementAndGet();
+            } else {
+                latencies.add(System.nanoTime() - start);
+            }
+            send(httpClient, request, end, latencies, errors, running, done);
+        });
+    }
+
+    private static class Result {
+        private final long[] latencies;
+        private final long errors;
+
+        Result(long[] latencies, long errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+
+        double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /members 페이지 조회 비용 :: age desc 정렬 1,000건 페이지 (회원 100,000건)
+ * - entityPage : findAll(pageable).map(MemberDto::new) (엔티티 조회 + 영속성 컨텍스트 + DTO 변환)
+ * - dtoPage : findAllDto(pageable) (생성자 조회)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberPageBenchmark {
+    private static final PageRequest PAGE = PageRequest.of(10, 1000, Sort.by(Sort.Direction.DESC, "age"));
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkContext.seed(context, 100, 100_000, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object entityPage() {
+        return readOnly.execute(status -> memberRepository.findAll(PAGE).map(MemberDto::new));
+    }
+
+    @Benchmark
+    public Object dtoPage() {
+        return readOnly.execute(status -> memberRepository.findAllDto(PAGE));
+    }
+}
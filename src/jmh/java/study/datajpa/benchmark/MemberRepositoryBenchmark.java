@@ -0,0 +1,114 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.NestedClosedProjection;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberRepository 주요 조회 메서드 처리량(ops/s)
+ * 실행 :: ./gradlew jmh -PjmhArgs='MemberRepositoryBenchmark' (jmh task가 gc 프로파일러를 붙이므로 할당량도 같이 출력)
+ * - 쿼리 정의 방식 : 메서드 이름(derived) vs NamedQuery vs @Query
+ * - 결과 타입 : 엔티티 vs DTO 생성자 vs 클래스/인터페이스 projection (closed, open, 중첩 :: findUsernameByUsername 동적 projection 프록시)
+ * - 전체 조회 : @EntityGraph(team fetch join) vs 단순 JPQL, 둘 다 team 이름까지 읽음 (단순 JPQL은 team 지연 로딩, default_batch_fetch_size 100으로 IN 쿼리 묶음 조회)
+ * caches=on이면 2차 캐시/쿼리 캐시(@CachedQuery) 사용, off이면 매번 DB 조회
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberRepositoryBenchmark {
+    private static final String USERNAME = "member7";
+
+    @Param({"off", "on"})
+    public String caches;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean enabled = "on".equals(caches);
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + enabled,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + enabled);
+        BenchmarkContext.seed(context, 100, 10_000, 1_000);//username당 10건
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object derivedQuery() {
+        return readOnly.execute(status -> memberRepository.findByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public Object namedQuery() {
+        return readOnly.execute(status -> memberRepository.findUser(USERNAME));
+    }
+
+    @Benchmark
+    public Object annotatedQuery() {
+        return readOnly.execute(status -> memberRepository.findByUsernameAndAge(USERNAME, 7));
+    }
+
+    @Benchmark
+    public Object dtoConstructor() {
+        return readOnly.execute(status -> memberRepository.findMemberDto(USERNAME));
+    }
+
+    @Benchmark
+    public Object classProjection() {
+        return readOnly.execute(status -> memberRepository.findUsernameDtoByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public Object openInterfaceProjection() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            memberRepository.findProjectionsByUsername(USERNAME).forEach(p -> sb.append(p.getUsername()));
+            return sb;
+        });
+    }
+
+    @Benchmark
+    public Object nestedInterfaceProjection() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            memberRepository.findUsernameByUsername(USERNAME, NestedClosedProjection.class).forEach(p -> sb.append(p.getTeam().getName()));
+            return sb;
+        });
+    }
+
+    @Benchmark
+    public Object findAllWithEntityGraph() {
+        return readOnly.execute(status -> teamNames(memberRepository.findAll()));
+    }
+
+    @Benchmark
+    public Object findAllWithoutEntityGraph() {
+        return readOnly.execute(status -> teamNames(memberRepository.findMemberCustom()));
+    }
+
+    // 트랜잭션 안에서 team 프록시 초기화 :: entity graph가 없으면 team마다 select
+    private static StringBuilder teamNames(List<Member> members) {
+        StringBuilder sb = new StringBuilder();
+        members.forEach(m -> sb.append(m.getTeam().getName()));
+        return sb;
+    }
+}
@@ -0,0 +1,82 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.UsernameOnly;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * open projection(UsernameOnly) 평가 비용 :: username당 1,000건
+ * - classProjection : findUsernameDtoByUsername (username 컬럼만 select)
+ * - openProjection : findProjectionsByUsername (CompiledSpelProjectionFactory, team fetch)
+ * - defaultOpenProjection : 같은 엔티티 조회 + 스프링 기본 SpelAwareProxyProjectionFactory (row마다 파싱, 인터프리터)
+ * 결과 조립까지 포함하도록 getUsername()을 모두 호출한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenProjectionBenchmark {
+    private static final String USERNAME = "member7";
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+    private SpelAwareProxyProjectionFactory defaultProjectionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkContext.seed(context, 100, 100_000, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        defaultProjectionFactory = new SpelAwareProxyProjectionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object classProjection() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            memberRepository.findUsernameDtoByUsername(USERNAME).forEach(p -> sb.append(p.getUsername()));
+            return sb;
+        });
+    }
+
+    @Benchmark
+    public Object openProjection() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            memberRepository.findProjectionsByUsername(USERNAME).forEach(p -> sb.append(p.getUsername()));
+            return sb;
+        });
+    }
+
+    @Benchmark
+    public Object defaultOpenProjection() {
+        return readOnly.execute(status -> {
+            StringBuilder sb = new StringBuilder();
+            List<Member> members = memberRepository.findFetchByUsername(USERNAME);
+            for (Member member : members) {
+                sb.append(defaultProjectionFactory.createProjection(UsernameOnly.class, member).getUsername());
+            }
+            return sb;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import study.datajpa.repository.MemberReactiveRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * blocking(MemberRepository) vs reactive(MemberReactiveRepository) 조회 처리량/할당량 :: username당 1,000건
+ * - blockingEntity : findByUsername (엔티티)
+ * - blockingDto : findMemberDto (DTO 생성자 조회)
+ * - blockingProjection : findMemberProjections (team 조인 DTO projection, 1,000건 한 페이지)
+ * - reactiveDto, reactiveProjection : Flux를 collectList().block()
+ * - reactiveStream : 리스트로 모으지 않고 row를 흘려보냄 (count)
+ * r2dbc-h2는 내부적으로 blocking이므로 논블로킹 이점(스레드 수)이 아니라 row 매핑/할당 비용 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveReadBenchmark {
+    private static final String USERNAME = "member7";
+    private static final PageRequest PAGE = PageRequest.of(0, 1000);
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberReactiveRepository memberReactiveRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkContext.seed(context, 100, 100_000, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberReactiveRepository = context.getBean(MemberReactiveRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object blockingEntity() {
+        return memberRepository.findByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public Object blockingDto() {
+        return memberRepository.findMemberDto(USERNAME);
+    }
+
+    @Benchmark
+    public Object blockingProjection() {
+        return memberRepository.findMemberProjections(USERNAME, PAGE);
+    }
+
+    @Benchmark
+    public Object reactiveDto() {
+        return memberReactiveRepository.findByUsername(USERNAME).collectList().block();
+    }
+
+    @Benchmark
+    public Object reactiveProjection() {
+        return memberReactiveRepository.findProjectionsByUsername(USERNAME).collectList().block();
+    }
+
+    @Benchmark
+    public Long reactiveStream() {
+        return memberReactiveRepository.findByUsername(USERNAME).count().block();
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.benchmark;
+
+import org.hibernate.jpa.QueryHints;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 읽기 전용 조회 방식별 처리량/할당량 :: username당 1,000건
+ * row당 할당량 = gc.alloc.rate.norm / 1000
+ * - readWrite : 쓰기 트랜잭션 + 엔티티 조회 (스냅샷, flush 시 변경 감지)
+ * - readOnlyHint : 쓰기 트랜잭션 + org.hibernate.readOnly 힌트 (기존 findReadOnlyByUsername)
+ * - readOnlyQuery : @ReadOnlyQuery (읽기 전용 트랜잭션, FlushMode.MANUAL, read-only 커넥션)
+ * - dto : @ReadOnlyQuery + DTO 생성자 조회 (영속성 컨텍스트 미사용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyQueryBenchmark {
+    private static final String USERNAME = "member7";
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private EntityManager em;
+    private TransactionTemplate readWrite;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkContext.seed(context, 100, 100_000, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        em = context.getBean(EntityManager.class);
+        readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object readWrite() {
+        return readWrite.execute(status -> memberRepository.findByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public Object readOnlyHint() {
+        return readWrite.execute(status -> em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", USERNAME)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList());
+    }
+
+    @Benchmark
+    public Object readOnlyQuery() {
+        return memberRepository.findReadOnlyByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public Object dto() {
+        return memberRepository.findMemberDto(USERNAME);
+    }
+}
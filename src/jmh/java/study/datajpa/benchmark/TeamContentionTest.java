@@ -0,0 +1,128 @@
+package study.datajpa.benchmark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.datasource.RetryingTransactionExecutor;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 팀 소속 변경 경합 테스트 :: threads개 스레드가 회원을 2개 팀 사이로 계속 옮긴다. (Member.changeTeam)
+ * 팀 소속 변경은 팀(aggregate) 변경으로 보고 Team version도 증가시킨다. :: 같은 팀으로 옮기는 트랜잭션끼리 경합
+ * - optimistic : OPTIMISTIC_FORCE_INCREMENT + RetryingTransactionExecutor (version 충돌 시 jitter backoff 후 재시도, max-attempts 초과 시 실패)
+ * - pessimistic : 재시도 없이 팀(PESSIMISTIC_FORCE_INCREMENT), 회원(PESSIMISTIC_WRITE)을 select for update로 잠그고 변경
+ * 성공률(커밋 / 시도), 처리량(커밋/s), 커밋당 재시도 수 비교
+ * <pre>
+ * ./gradlew contentionTest -PcontentionTestArgs='1,4,16 10'   # 스레드 수 목록, 측정 시간(초)
+ * </pre>
+ */
+public class TeamContentionTest {
+    private static final int TEAMS = 2;
+    private static final int MEMBERS = 1_000;
+    private static final int WARMUP_SECONDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String[] threadCounts = (args.length > 0 ? args[0] : "1,4,16").split(",");
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        ConfigurableApplicationContext context = BenchmarkContext.start(
+                "datajpa.jdbc.p6spy-sample-rate=0",
+                "logging.level.study.datajpa.monitor=error",
+                "logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=off");//충돌(StaleStateException)마다 찍히는 에러 로그
+        try {
+            BenchmarkContext.seed(context, TEAMS, MEMBERS, MEMBERS);
+            EntityManager em = context.getBean(EntityManager.class);
+            RetryingTransactionExecutor retryingExecutor = context.getBean(RetryingTransactionExecutor.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            Counter retries = context.getBean(MeterRegistry.class).get("transaction.retry").tag("result", "retry").counter();
+
+            System.out.printf("%-12s %7s %9s %8s %9s %10s %11s%n", "mode", "threads", "commits", "failed", "success", "commits/s", "retries/op");
+            for (String threadCount : threadCounts) {
+                int threads = Integer.parseInt(threadCount.trim());
+                for (boolean optimistic : new boolean[]{true, false}) {
+                    Operation operation = optimistic
+                            ? (memberId, teamId) -> retryingExecutor.execute(changeTeam(em, memberId, teamId,
+                            LockModeType.OPTIMISTIC_FORCE_INCREMENT, LockModeType.NONE))
+                            : (memberId, teamId) -> transactionTemplate.execute(changeTeam(em, memberId, teamId,
+                            LockModeType.PESSIMISTIC_FORCE_INCREMENT, LockModeType.PESSIMISTIC_WRITE));
+                    run(operation, threads, WARMUP_SECONDS);
+                    double retriesBefore = retries.count();
+                    Result result = run(operation, threads, seconds);
+                    long retried = (long) (retries.count() - retriesBefore);
+                    long attempts = result.commits + result.failed;
+                    System.out.printf("%-12s %7d %9d %8d %8.2f%% %10.0f %11.3f%n", optimistic ? "optimistic" : "pessimistic", threads,
+                            result.commits, result.failed, attempts == 0 ? 0.0 : 100.0 * result.commits / attempts,
+                            (double) result.commits / seconds, result.commits == 0 ? 0.0 : (double) retried / result.commits);
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    // 팀을 먼저 잠그고 회원을 잠근다. (모든 스레드가 같은 순서 -> 데드락 없음)
+    private static TransactionCallback<Void> changeTeam(EntityManager em, long memberId, long teamId,
+                                                        LockModeType teamLock, LockModeType memberLock) {
+        return status -> {
+            Team team = em.find(Team.class, teamId, teamLock);
+            Member member = em.find(Member.class, memberId, memberLock);
+            member.changeTeam(team);
+            return null;
+        };
+    }
+
+    private static Result run(Operation operation, int threads, int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        LongAdder commits = new LongAdder();
+        LongAdder failed = new LongAdder();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    long memberId = random.nextLong(MEMBERS) + 1;
+                    long teamId = random.nextLong(TEAMS) + 1;
+                    try {
+                        operation.changeTeam(memberId, teamId);
+                        commits.increment();
+                    } catch (ConcurrencyFailureException e) {
+                        failed.increment();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        return new Result(commits.sum(), failed.sum());
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void changeTeam(long memberId, long teamId);
+    }
+
+    private static class Result {
+        private final long commits;
+        private final long failed;
+
+        Result(long commits, long failed) {
+            this.commits = commits;
+            this.failed = failed;
+        }
+    }
+}
@@ -2,21 +2,23 @@ package study.datajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import study.datajpa.repository.DataJpaRepositoryFactoryBean;
 
 import java.util.Optional;
 
-@EnableJpaAuditing
-@SpringBootApplication
+@EnableJpaRepositories(repositoryFactoryBeanClass = DataJpaRepositoryFactoryBean.class)
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)//R2DBC ConnectionFactory 빈이 있으면 DataSource(JPA) 자동 설정이 빠진다. :: R2dbcConfig
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(DataJpaApplication.class, args);
 	}
 
-	@Bean
+	@Bean//AuditStampSource가 트랜잭션당 한 번 호출
 	public AuditorAware<String> auditorProvider(){
 		return ()-> Optional.of("session Login Id");//세션ID OR 스프링 시큐리티 로그인 정보
 	}
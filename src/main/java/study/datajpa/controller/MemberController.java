@@ -5,21 +5,40 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.datasource.JdbcExecutor;
+import study.datajpa.dto.CursorSlice;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.CountMode;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.UnsortablePropertyException;
 
 import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
+    private static final int MAX_PAGE_SIZE = 2000;
+    private static final List<String> DTO_SORTABLE = Arrays.asList("id", "username", "age");
+
     private final MemberRepository memberRepository;
+    private final MemberExporter memberExporter;
+    private final JdbcExecutor jdbcExecutor;
 
     @GetMapping("/members/{id}")
     public String findMembers(@PathVariable("id") Long id){
@@ -44,19 +63,79 @@ public class MemberController {
      * 1) Pageable, Page 구현체를 사용하지 않고 직접 구현
      * 2) 설정파일에 spring.data.web.pageable.one-indexed-parameters = true로 설정
      *    단, 요청 값을 -1처리 해주기 때문에 PageNumber 관련 응답 필드는 요청 값에서 -1 처리된 값으로 넘어 감.
+     *
+     * 조회는 JdbcExecutor에서 실행 :: 요청 스레드는 바로 반납, 대기열이 가득 차면 503
+     * 엔티티 조회 후 map(MemberDto::new) 대신 DTO 생성자 조회 (findAllDto)
+     * 정렬은 DTO_SORTABLE 속성만 (그 외 400) :: team.name 정렬은 암묵적 inner join이라 팀 없는 회원이 빠져 totalElements와 어긋난다.
      * @param pageable
      * @return
      */
     @GetMapping("/members")
-    public Page<MemberDto> findAll(@PageableDefault(size=10, sort="age", direction = Sort.Direction.DESC) Pageable pageable){
-        return memberRepository.findAll(pageable).map(MemberDto::new);
+    public CompletableFuture<Page<MemberDto>> findAll(@PageableDefault(size=10, sort="age", direction = Sort.Direction.DESC) Pageable pageable){
+        for (Sort.Order order : pageable.getSort()) {
+            if (!DTO_SORTABLE.contains(order.getProperty())) {
+                throw new UnsortablePropertyException("정렬할 수 없는 속성입니다: " + order.getProperty() + " (가능: " + DTO_SORTABLE + ")");
+            }
+        }
+        return jdbcExecutor.submit(() -> memberRepository.findAllDto(pageable));
+    }
+
+    /**
+     * http://localhost:8080/members/keyset?size=10
+     * http://localhost:8080/members/keyset?after={nextCursor}&size=10
+     * keyset(seek) 페이징 :: /members와 같은 age desc 정렬, 동일 나이는 id 순
+     * offset을 쓰지 않아 깊은 페이지도 첫 페이지와 비용이 같고, count 쿼리를 실행하지 않는다.
+     * @param after 이전 응답의 nextCursor (첫 페이지는 생략)
+     * @param size
+     * @return
+     */
+    @GetMapping("/members/keyset")
+    public CompletableFuture<CursorSlice<MemberDto>> findAllByKeyset(@RequestParam(required = false) String after,
+                                                                     @RequestParam(defaultValue = "10") int size){
+        MemberCursor cursor = after == null ? null : MemberCursor.decode(after);
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return jdbcExecutor.submit(() -> memberRepository.findAllByKeyset(cursor, limit).map(MemberDto::new));
+    }
+
+    /**
+     * http://localhost:8080/members/search?username=member1&ageGoe=10&ageLoe=20&teamName=teamA&sort=age,desc
+     * 조건은 모두 선택, 정렬 가능 속성은 id, username, age, teamName
+     * 같은 조건 조합 + 정렬은 같은 쿼리(플랜 캐시 재사용), 정렬할 수 없는 속성이면 400, count는 조건별 캐시(CountMode.CACHED)
+     * @param condition
+     * @param pageable
+     * @return
+     */
+    @GetMapping("/members/search")
+    public CompletableFuture<Page<MemberDto>> search(MemberSearchCondition condition, @PageableDefault(size=10) Pageable pageable){
+        return jdbcExecutor.submit(() -> memberRepository.search(condition, pageable, CountMode.CACHED).map(MemberDto::new));
+    }
+
+    /**
+     * http://localhost:8080/members/export?format=csv
+     * 회원 전체 export :: ndjson(default) or csv, 조회하면서 바로 응답으로 흘려보낸다.
+     * @param format
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping("/members/export")
+    public void export(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if ("csv".equalsIgnoreCase(format)) {
+            response.setContentType("text/csv");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members.csv");
+            memberExporter.writeCsv(response.getWriter());
+        } else {
+            response.setContentType("application/x-ndjson");
+            memberExporter.writeNdjson(response.getWriter());
+        }
     }
 
     //@PostConstruct
     private void init(){
+        List<Member> members = new ArrayList<>();
         for(int i=0;i<100;i++){
-            Member member = new Member("member"+i,i);
-            memberRepository.save(member);
+            members.add(new Member("member"+i,i));
         }
+        memberRepository.saveAllBatched(members, 100);
     }
 }
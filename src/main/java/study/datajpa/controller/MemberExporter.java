@@ -0,0 +1,71 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 회원 전체를 응답 스트림으로 바로 내보낸다 :: 전체를 List로 만들지 않으므로 건수와 상관없이 힙 사용량 일정
+ * FLUSH_INTERVAL 건마다 flush 해서 쿼리가 끝나기 전에 클라이언트가 받기 시작한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberExporter {
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void writeNdjson(Writer writer) throws IOException {
+        try (Stream<MemberDto> members = memberRepository.streamAllDto();
+             SequenceWriter sequenceWriter = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer)) {
+            int count = 0;
+            for (Iterator<MemberDto> it = members.iterator(); it.hasNext(); ) {
+                sequenceWriter.write(it.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    sequenceWriter.flush();
+                }
+            }
+            sequenceWriter.flush();
+            if (count > 0) {
+                writer.write("\n");
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("id,username,age\n");
+        try (Stream<MemberDto> members = memberRepository.streamAllDto()) {
+            int count = 0;
+            for (Iterator<MemberDto> it = members.iterator(); it.hasNext(); ) {
+                MemberDto member = it.next();
+                writer.write(member.getId() + "," + csv(member.getUsername()) + "," + member.getAge() + "\n");
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,114 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * datajpa.datasource.routing.enabled=true 일 때 primary + replica 라우팅 DataSource, 트랜잭션 매니저 등록
+ * (DataSource, 트랜잭션 매니저 빈이 있으면 스프링 부트 기본 설정은 적용되지 않음)
+ * 라우팅은 커넥션을 얻을 때 결정되므로 트랜잭션이 끝나면 커넥션 반환 (DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+ * - 기본값(AND_HOLD)이면 open-in-view의 EntityManager가 요청 내내 처음 얻은 커넥션을 잡고 있어서
+ *   읽기 전용 트랜잭션 다음의 쓰기 트랜잭션이 replica 커넥션으로 실행되고, read-your-writes도 적용되지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datajpa.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+    private HikariDataSource primaryDataSource;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    // primary/replica는 빈으로 등록하지 않는다. (DataSource 빈이 여러 개면 p6spy 데코레이터 중복 적용, 자동 설정 충돌)
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, DataSourceRoutingProperties properties,
+                                 Environment environment) {
+        primaryDataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryDataSource));
+        primaryDataSource.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<DataSourceRoutingProperties.Replica> replicaProperties = properties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            replicas.put("replica-" + i, replica(i, replicaProperties.get(i), properties, primaryDataSource));
+        }
+        pools.add(primaryDataSource);
+        replicas.values().forEach(replica -> pools.add((HikariDataSource) replica));
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                properties.getReadYourWritesWindow(), properties.getHealthCheckInterval());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer routingConnectionHandling() {
+        return properties -> properties.putIfAbsent(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    // 풀 메트릭(hikaricp.connections.*, pool 태그) :: 라우팅 뒤의 replica 풀은 스프링 부트가 찾지 못하므로 직접 등록
+    @Bean
+    public MeterBinder routingPoolMetrics(DataSource dataSource) {
+        return registry -> pools.stream()
+                .filter(pool -> pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null)
+                .forEach(pool -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+
+    // 쓰기 커밋 시 ReadYourWrites 기록, 트랜잭션 시작 시 readOnly 여부로 라우팅
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        RoutingJpaTransactionManager transactionManager = new RoutingJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    // replica 풀, health check는 ReplicaRoutingDataSource.close() (빈 destroy 메서드 자동 추론)
+    @PreDestroy
+    public void close() {
+        if (primaryDataSource != null) {
+            primaryDataSource.close();
+        }
+    }
+
+    private static HikariDataSource replica(int index, DataSourceRoutingProperties.Replica replica, DataSourceRoutingProperties properties,
+                                            HikariDataSource primary) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        dataSource.setMaximumPoolSize(properties.getReplicaPoolSize());
+        dataSource.setConnectionTimeout(properties.getReplicaConnectionTimeout().toMillis());
+        dataSource.setDataSourceProperties(primary.getDataSourceProperties());//드라이버 설정(statement 캐시 등)은 primary와 같게
+        dataSource.setReadOnly(true);
+        dataSource.setInitializationFailTimeout(-1);//replica가 내려가 있어도 기동, health check에서 제외
+        return dataSource;
+    }
+}
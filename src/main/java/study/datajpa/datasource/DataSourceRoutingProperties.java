@@ -0,0 +1,37 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기/쓰기 datasource 분리 설정 (primary는 spring.datasource.*)
+ * <pre>
+ * datajpa.datasource.routing:
+ *   enabled: true
+ *   replicas:
+ *     - url: jdbc:h2:tcp://replica1/~/datajpa
+ *       username: sa
+ * </pre>
+ */
+@Getter @Setter
+@ConfigurationProperties("datajpa.datasource.routing")
+public class DataSourceRoutingProperties {
+    private boolean enabled = false;
+    private List<Replica> replicas = new ArrayList<>();
+    private int replicaPoolSize = 10;
+    private Duration replicaConnectionTimeout = Duration.ofSeconds(2);//replica 커넥션 대기 (health check 포함)
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);//복제 지연 동안 쓰기 이후 조회는 primary
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.monitor.SqlStatements;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * JDBC(리포지토리) 호출 전용 bounded executor :: 컨트롤러는 CompletableFuture를 반환하고 요청 스레드는 바로 반납된다.
+ * - 스레드 수 = 커넥션 풀 크기 :: 풀보다 많은 스레드는 커넥션을 기다리기만 한다.
+ * - 대기열이 queueCapacity를 넘으면 JdbcExecutorBusyException(503) :: 대기열이 무한히 늘어나는 대신 바로 거절 (backpressure)
+ * - 요청 스레드의 SQL 통계 구간, read-your-writes 기록을 작업 스레드로 넘긴다.
+ * - enabled=false면 호출한 스레드에서 바로 실행 (기존 blocking 방식)
+ * - jdbc.executor.wait (timer) :: 대기열에서 기다린 시간, executor.* :: 스레드, 대기열 현황
+ */
+@Component
+public class JdbcExecutor implements MeterBinder {
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+    private volatile Timer waitTimer;
+
+    public JdbcExecutor(@Value("${datajpa.jdbc.executor.enabled:true}") boolean enabled,
+                        @Value("${datajpa.jdbc.executor.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+                        @Value("${datajpa.jdbc.executor.queue-capacity:1000}") int queueCapacity) {
+        this.enabled = enabled;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "jdbc-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        Supplier<T> propagated = propagate(SqlStatements.propagate(task));
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Timer timer = waitTimer;
+                if (timer != null) {
+                    timer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                }
+                return propagated.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            throw new JdbcExecutorBusyException("JDBC 작업 대기열이 가득 참 (" + executor.getQueue().size() + ")");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "jdbc", Tags.empty()).bindTo(registry);
+        waitTimer = Timer.builder("jdbc.executor.wait").publishPercentileHistogram().register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // 요청 스레드의 마지막 쓰기 시각을 작업 스레드에서도 유지
+    private static <T> Supplier<T> propagate(Supplier<T> task) {
+        Long lastWrite = ReadYourWrites.lastWrite();
+        if (lastWrite == null) {
+            return task;
+        }
+        return () -> {
+            ReadYourWrites.restore(lastWrite);
+            try {
+                return task.get();
+            } finally {
+                ReadYourWrites.clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package study.datajpa.datasource;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class JdbcExecutorBusyException extends RuntimeException {
+    public JdbcExecutorBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package study.datajpa.datasource;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * 리액티브 조회(MemberReactiveRepository)용 R2DBC DatabaseClient
+ * spring.datasource.url(H2)과 같은 DB로 r2dbc-h2 커넥션 풀을 만든다.
+ * ConnectionFactory는 빈으로 등록하지 않는다. :: 빈이 있으면 DataSourceAutoConfiguration(JPA)이 빠지고, R2DBC 트랜잭션 매니저가 생긴다.
+ */
+@Configuration
+@ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:h2:')")
+public class R2dbcConfig {
+    private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfig(DataSourceProperties dataSourceProperties,
+                       @Value("${datajpa.r2dbc.pool-size:10}") int poolSize) {
+        H2ConnectionConfiguration.Builder configuration = H2ConnectionConfiguration.builder()
+                .url(dataSourceProperties.determineUrl().substring(H2_JDBC_PREFIX.length()))
+                .username(dataSourceProperties.determineUsername());
+        String password = dataSourceProperties.determinePassword();
+        if (password != null) {
+            configuration.password(password);
+        }
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration.build()))
+                .name("r2dbc")
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.datasource;
+
+/**
+ * 현재 스레드(요청)의 마지막 쓰기 커밋 시각
+ * 커밋 후 window 동안은 읽기 전용 트랜잭션도 primary로 보내 방금 쓴 데이터를 읽을 수 있게 한다.
+ * 요청 단위 초기화는 ReadYourWritesFilter
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void markWrite() {
+        LAST_WRITE.set(System.nanoTime());
+    }
+
+    public static boolean isWithin(long windowNanos) {
+        Long lastWrite = LAST_WRITE.get();
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    // JdbcExecutor 작업 스레드로 전달
+    static Long lastWrite() {
+        return LAST_WRITE.get();
+    }
+
+    static void restore(long lastWrite) {
+        LAST_WRITE.set(lastWrite);
+    }
+
+    public static void clear() {
+        LAST_WRITE.remove();
+    }
+}
@@ -0,0 +1,132 @@
+package study.datajpa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 트랜잭션 기준 라우팅 (readOnly 여부는 RoutingJpaTransactionManager가 전달)
+ * - 읽기 전용 트랜잭션 :: 정상(health check) replica 중 라운드 로빈, 정상 replica가 없거나 read-your-writes window 안이면 primary
+ * - 그 외(쓰기 트랜잭션, 트랜잭션 없음) :: primary
+ * - health check는 health-check-interval마다, 비정상 replica가 있으면 100ms부터 2배씩 늘려 더 자주 (기동 직후 풀 초기화 중인 replica가 한 주기 동안 빠지지 않도록)
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    static final String PRIMARY = "primary";
+    private static final long RECHECK_MILLIS = 100;
+
+    private final Map<String, DataSource> replicas;
+    private final long readYourWritesNanos;
+    private final long healthCheckMillis;
+    private final ScheduledExecutorService healthChecker;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthyReplicas;
+    private long recheckMillis = RECHECK_MILLIS;//health check 스레드에서만 사용
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration readYourWritesWindow, Duration healthCheckInterval) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        this.healthCheckMillis = healthCheckInterval.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        checkHealth();
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleHealthCheck();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Boolean beginningReadOnly = RoutingJpaTransactionManager.beginningReadOnly();
+        boolean readOnly = beginningReadOnly != null
+                ? beginningReadOnly
+                : TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!readOnly) {
+            return PRIMARY;
+        }
+        if (ReadYourWrites.isWithin(readYourWritesNanos)) {
+            return PRIMARY;
+        }
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    public void checkHealth() {
+        List<String> healthy = new ArrayList<>();
+        replicas.forEach((key, dataSource) -> {
+            try (Connection connection = dataSource.getConnection()) {
+                if (connection.isValid(1)) {
+                    healthy.add(key);
+                    return;
+                }
+            } catch (Exception e) {
+                log.debug("replica {} health check failed", key, e);
+            }
+            if (healthyReplicas == null || healthyReplicas.contains(key)) {
+                log.warn("replica {} is unhealthy, excluded from read routing", key);
+            }
+        });
+        healthyReplicas = Collections.unmodifiableList(healthy);
+    }
+
+    // 모두 정상이면 interval 뒤, 아니면 recheck 간격(100ms부터 2배, 최대 interval) 뒤 다시 검사
+    private void scheduleHealthCheck() {
+        long delay;
+        if (healthyReplicas.size() == replicas.size()) {
+            recheckMillis = RECHECK_MILLIS;
+            delay = healthCheckMillis;
+        } else {
+            delay = Math.min(recheckMillis, healthCheckMillis);
+            recheckMillis = Math.min(recheckMillis * 2, healthCheckMillis);
+        }
+        healthChecker.schedule(() -> {
+            try {
+                checkHealth();
+            } finally {
+                if (!healthChecker.isShutdown()) {
+                    scheduleHealthCheck();
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) dataSource).close();
+                } catch (Exception e) {
+                    log.warn("failed to close replica datasource", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package study.datajpa.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 낙관적 락 충돌 시 트랜잭션 전체를 다시 실행
+ * - 시도마다 새 트랜잭션(새 영속성 컨텍스트) :: 최신 version으로 다시 읽고 다시 변경한다. 콜백은 여러 번 실행될 수 있음
+ * - 충돌 :: ConcurrencyFailureException(ObjectOptimisticLockingFailureException, 락 대기 실패 등), OptimisticLockException(em.flush 직접 호출)
+ * - backoff :: 0 ~ min(maxBackoff, initialBackoff * 2^(시도-1)) 랜덤 (full jitter) -> 같이 실패한 스레드가 같은 시각에 다시 부딪히지 않도록
+ * - maxAttempts번 모두 실패하면 마지막 예외를 던진다.
+ * - 트랜잭션 안에서 호출하면 IllegalStateException :: 바깥 트랜잭션은 이미 rollback-only라 재시도해도 커밋할 수 없다.
+ * - transaction.retry{result=retry|exhausted}, transaction.attempts (성공까지 시도 횟수)
+ */
+@Component
+public class RetryingTransactionExecutor implements MeterBinder {
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private volatile Counter retries;
+    private volatile Counter exhausted;
+    private volatile DistributionSummary attempts;
+
+    public RetryingTransactionExecutor(PlatformTransactionManager transactionManager,
+                                       @Value("${datajpa.retry.max-attempts:5}") int maxAttempts,
+                                       @Value("${datajpa.retry.initial-backoff:10ms}") Duration initialBackoff,
+                                       @Value("${datajpa.retry.max-backoff:200ms}") Duration maxBackoff) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        if (initialBackoff.isNegative() || initialBackoff.compareTo(maxBackoff) > 0) {
+            throw new IllegalArgumentException("initialBackoff must be between 0 and maxBackoff: " + initialBackoff + " > " + maxBackoff);
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("트랜잭션 밖에서 호출해야 합니다. (충돌 시 트랜잭션 전체를 다시 실행)");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(action);
+                record(attempts, attempt);
+                return result;
+            } catch (ConcurrencyFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    increment(exhausted);
+                    throw e;
+                }
+                increment(retries);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        retries = Counter.builder("transaction.retry").tag("result", "retry").register(registry);
+        exhausted = Counter.builder("transaction.retry").tag("result", "exhausted").register(registry);
+        attempts = DistributionSummary.builder("transaction.attempts").register(registry);
+    }
+
+    private void backoff(int attempt, RuntimeException conflict) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(backoffCeiling(attempt) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    //initialBackoff * 2^(시도-1)이 maxBackoff를 넘으면 shift 전에 maxBackoff로 고정 (shift overflow 방지)
+    long backoffCeiling(int attempt) {
+        int shift = Math.min(attempt - 1, 62);
+        if (initialBackoffNanos > (maxBackoffNanos >> shift)) {
+            return maxBackoffNanos;
+        }
+        return initialBackoffNanos << shift;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static void record(DistributionSummary summary, int value) {
+        if (summary != null) {
+            summary.record(value);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.datasource;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * 트랜잭션 시작 시 readOnly 여부를 ReplicaRoutingDataSource에 전달
+ * hibernate는 트랜잭션 시작(doBegin) 중에 커넥션을 얻는데, 이때는 아직 TransactionSynchronizationManager에 readOnly가 설정되지 않는다.
+ * (p6spy 데코레이터가 커넥션을 바로 사용하므로 LazyConnectionDataSourceProxy로는 지연되지 않음)
+ */
+public class RoutingJpaTransactionManager extends JpaTransactionManager {
+    private static final ThreadLocal<Boolean> BEGINNING_READ_ONLY = new ThreadLocal<>();
+
+    /** 시작 중인 트랜잭션의 readOnly 여부, 시작 중이 아니면 null */
+    static Boolean beginningReadOnly() {
+        return BEGINNING_READ_ONLY.get();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        BEGINNING_READ_ONLY.set(definition.isReadOnly());
+        try {
+            super.doBegin(transaction, definition);
+        } finally {
+            BEGINNING_READ_ONLY.remove();
+        }
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        if (!status.isReadOnly()) {
+            ReadYourWrites.markWrite();
+        }
+    }
+}
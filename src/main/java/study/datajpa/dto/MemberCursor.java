@@ -0,0 +1,41 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset(seek) 페이징 커서 :: 마지막으로 읽은 row의 (age, id)
+ * 클라이언트에는 Base64 문자열로 내려주고 그대로 다시 받는다. (형식이 맞지 않으면 InvalidCursorException :: 400)
+ */
+@Getter
+public class MemberCursor {
+    private final int age;
+    private final Long id;
+
+    public MemberCursor(int age, Long id) {
+        this.age = age;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getAge(), member.getId());
+    }
+
+    public String encode() {
+        String raw = age + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(':');
+            return new MemberCursor(Integer.parseInt(raw.substring(0, idx)), Long.valueOf(raw.substring(idx + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("잘못된 커서 값입니다: " + cursor, e);
+        }
+    }
+}
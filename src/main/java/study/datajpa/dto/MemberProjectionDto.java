@@ -0,0 +1,14 @@
+package study.datajpa.dto;
+
+import lombok.Value;
+
+/**
+ * MemberProjection 불변 구현 :: JPQL 생성자 조회(select new)로 필요한 컬럼만 담는다.
+ * row마다 Map + JDK 동적 프록시를 만드는 인터페이스 projection 대신 필드 3개짜리 객체
+ */
+@Value
+public class MemberProjectionDto implements MemberProjection {
+    Long id;
+    String username;
+    String teamName;
+}
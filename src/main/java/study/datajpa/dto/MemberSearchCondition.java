@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 회원 검색 조건 :: null, 빈 문자열은 조건에서 제외
+ * /members/search?username=member1&ageGoe=10&ageLoe=20&teamName=teamA&sort=age,desc
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSearchCondition {
+    private String username;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    private String teamName;
+}
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Value;
+
+/**
+ * NestedClosedProjection 불변 구현 :: JPQL 생성자 조회(select new)로 member.username, team.name만 select
+ * 인터페이스 projection은 중첩 projection(TeamInfo)이 있으면 Team 엔티티 전체를 select하고 row마다 프록시 2개를 만든다.
+ * 팀이 없으면 getTeam()은 null (인터페이스 projection과 동일)
+ */
+@Value
+public class NestedClosedProjectionDto implements NestedClosedProjection {
+    String username;
+    TeamInfo team;
+
+    public NestedClosedProjectionDto(String username, Long teamId, String teamName) {
+        this.username = username;
+        this.team = teamId == null ? null : new TeamInfoDto(teamName);
+    }
+
+    @Value
+    public static class TeamInfoDto implements TeamInfo {
+        String name;
+    }
+}
@@ -3,6 +3,8 @@ package study.datajpa.dto;
 import org.springframework.beans.factory.annotation.Value;
 
 public interface UsernameOnly {
-    @Value("#{target.username + ' ' + target.age + ' ' + target.team.name}") //open projections 전체 select 후 WAS에서 조립
+    //open projections 전체 select 후 WAS에서 조립 (team은 @EntityGraph로 같은 쿼리에서 fetch)
+    //int 문자열 연결(+)은 SpEL 컴파일이 안 되므로 T(String).valueOf 사용 -> CompiledSpelProjectionFactory
+    @Value("#{target.username + ' ' + T(String).valueOf(target.age) + ' ' + target.team.name}")
     String getUsername();
 }
@@ -0,0 +1,16 @@
+package study.datajpa.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 감사 정보 (수정자, 시각) :: AuditStampSource가 트랜잭션당 한 번 만든다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class AuditStamp {
+    private final String auditor;
+    private final LocalDateTime timestamp;
+}
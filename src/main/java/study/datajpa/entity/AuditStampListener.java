@@ -0,0 +1,26 @@
+package study.datajpa.entity;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * AuditingEntityListener 대체 :: AuditStampSource의 트랜잭션당 감사 정보로 엔티티를 채운다.
+ * hibernate가 스프링 빈 컨테이너(SpringBeanContainer)로 생성하므로 생성자 주입 가능
+ */
+public class AuditStampListener {
+    private final AuditStampSource auditStampSource;
+
+    public AuditStampListener(AuditStampSource auditStampSource) {
+        this.auditStampSource = auditStampSource;
+    }
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        ((AuditStamped) entity).stampCreated(auditStampSource.current());
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        ((AuditStamped) entity).stampModified(auditStampSource.current());
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.entity;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * 감사 정보(AuditorAware, 현재 시각)를 트랜잭션당 한 번만 구한다.
+ * AuditingEntityListener는 엔티티마다 AuditorAware, now()를 호출 -> 대량 저장 시 엔티티 수만큼 반복
+ * 같은 트랜잭션에서 저장/수정한 엔티티, 벌크 update는 같은 시각(트랜잭션에서 처음 구한 시각)으로 기록된다.
+ * 트랜잭션 밖에서는 호출마다 새로 구한다. Clock 빈이 있으면 사용 (테스트)
+ */
+@Component
+public class AuditStampSource {
+    private final AuditorAware<String> auditorAware;
+    private final Clock clock;
+
+    public AuditStampSource(AuditorAware<String> auditorAware, ObjectProvider<Clock> clock) {
+        this.auditorAware = auditorAware;
+        this.clock = clock.getIfAvailable(Clock::systemDefaultZone);
+    }
+
+    public AuditStamp current() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return resolve();
+        }
+        AuditStamp stamp = (AuditStamp) TransactionSynchronizationManager.getResource(this);
+        if (stamp == null) {
+            stamp = resolve();
+            TransactionSynchronizationManager.bindResource(this, stamp);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditStampSource.this);
+                }
+            });
+        }
+        return stamp;
+    }
+
+    private AuditStamp resolve() {
+        return new AuditStamp(auditorAware.getCurrentAuditor().orElse(null), LocalDateTime.now(clock));
+    }
+}
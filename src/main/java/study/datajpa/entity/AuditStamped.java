@@ -0,0 +1,12 @@
+package study.datajpa.entity;
+
+/**
+ * AuditStampListener가 감사 컬럼을 채우는 엔티티 :: 리플렉션 없이 필드에 직접 대입
+ */
+public interface AuditStamped {
+
+    void stampCreated(AuditStamp stamp);
+
+    default void stampModified(AuditStamp stamp) {
+    }
+}
@@ -2,22 +2,34 @@ package study.datajpa.entity;
 
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.Column;
-import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 
-@EntityListeners(AuditingEntityListener.class)
 @MappedSuperclass
 @Getter
 public class BaseEntity extends BaseTimeEntity {
-    @CreatedBy
+    @Version//낙관적 락 :: update 시 where version = ? 조건, 다른 트랜잭션이 먼저 바꿨으면 ObjectOptimisticLockingFailureException
+    @ColumnDefault("0")//JDBC로 직접 insert한 row도 0부터
+    private Long version;
+
     @Column(updatable = false)
     private String createdBy;
 
-    @LastModifiedBy
     private String lastModifiedBy;
+
+    @Override
+    public void stampCreated(AuditStamp stamp) {
+        super.stampCreated(stamp);
+        this.createdBy = stamp.getAuditor();
+        this.lastModifiedBy = stamp.getAuditor();
+    }
+
+    @Override
+    public void stampModified(AuditStamp stamp) {
+        super.stampModified(stamp);
+        this.lastModifiedBy = stamp.getAuditor();
+    }
 }
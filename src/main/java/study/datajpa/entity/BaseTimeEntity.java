@@ -1,23 +1,29 @@
 package study.datajpa.entity;
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(AuditStampListener.class)
 @MappedSuperclass
 @Getter
-public class BaseTimeEntity {
-    @CreatedDate
+public class BaseTimeEntity implements AuditStamped {
     @Column(updatable = false)
     private LocalDateTime createdDate;
 
-    @LastModifiedDate
     private LocalDateTime lastModifedDate;
+
+    @Override
+    public void stampCreated(AuditStamp stamp) {
+        this.createdDate = stamp.getTimestamp();
+        this.lastModifedDate = stamp.getTimestamp();
+    }
+
+    @Override
+    public void stampModified(AuditStamp stamp) {
+        this.lastModifedDate = stamp.getTimestamp();
+    }
 }
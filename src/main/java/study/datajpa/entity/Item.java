@@ -3,9 +3,7 @@ package study.datajpa.entity;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.domain.Persistable;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
@@ -14,13 +12,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Getter
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(AuditStampListener.class)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-public class Item implements Persistable<String> {
+public class Item implements Persistable<String>, AuditStamped {
     @Id
     private String id;
 
-    @CreatedDate
     private LocalDateTime createDate;
 
     public Item(String id) {
@@ -36,4 +33,9 @@ public class Item implements Persistable<String> {
     public boolean isNew() {
         return createDate==null;
     }
+
+    @Override
+    public void stampCreated(AuditStamp stamp) {
+        this.createDate = stamp.getTimestamp();
+    }
 }
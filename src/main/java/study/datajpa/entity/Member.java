@@ -1,11 +1,21 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.repository.EntityGraph;
 
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),//findByUsername, named/native 쿼리
+        @Index(name = "idx_member_age_id", columnList = "age desc, member_id"),//findByAge, bulkUpdate, age desc, id 페이징/keyset :: 정렬 방향까지 맞춰야 sort 없이 인덱스 순서로 읽는다.
+        @Index(name = "idx_member_team_id", columnList = "team_id")//team 조인, FK
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")//2차 캐시 :: findById, 도메인 클래스 컨버터 조회
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of={"id","username","age"})
@@ -14,9 +24,10 @@ import javax.persistence.*;
         query= "select m from Member m where m.username = :username"
 )
 @NamedEntityGraph(name = "Member.team", attributeNodes = @NamedAttributeNode("team"))
+@SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)//pooled :: 시퀀스 1회 호출로 50개 id 확보
 public class Member extends BaseEntity{
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
     @Column(name="member_id")
     private Long id;
     private String username;
@@ -43,7 +54,12 @@ public class Member extends BaseEntity{
         }
     }
 
+    // 이전 팀 컬렉션이 이미 로딩된 경우만 제거 :: 로딩되지 않은 컬렉션을 remove하면 팀 전체 members 조회
+    // 2차 캐시(team_members)는 auto_evict_collection_cache가 제거
     public void changeTeam(Team team){
+        if (this.team != null && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
         team.getMembers().add(this);
     }
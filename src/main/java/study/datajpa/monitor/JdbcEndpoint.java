@@ -0,0 +1,112 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.QueryShapeRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/jdbc :: 커넥션 풀, statement 캐시, 쿼리 플랜 캐시(동적 쿼리 모양 수), slow query, 지연 로딩 fetch 현황
+ * 풀 값은 HikariCP 메트릭(hikaricp.connections.*)에서 풀 이름별로 모은다. (routing 사용 시 primary, replica-N)
+ * DELETE /actuator/jdbc :: slow query 기록 초기화
+ */
+@Component
+@Endpoint(id = "jdbc")
+@RequiredArgsConstructor
+public class JdbcEndpoint {
+    private final MeterRegistry meterRegistry;
+    private final JdbcMonitorProperties properties;
+    private final StatementCacheMetrics statementCacheMetrics;
+    private final SlowQueryLog slowQueryLog;
+    private final LazyFetchMetrics lazyFetchMetrics;
+    private final QueryPlanCacheMetrics queryPlanCacheMetrics;
+    private final QueryShapeRegistry queryShapeRegistry;
+
+    @ReadOperation
+    public Map<String, Object> jdbc() {
+        Map<String, Object> jdbc = new LinkedHashMap<>();
+        jdbc.put("pools", pools());
+
+        Map<String, Object> statementCache = new LinkedHashMap<>();
+        statementCache.put("size", properties.getStatementCacheSize());
+        statementCache.put("hits", statementCacheMetrics.getHits());
+        statementCache.put("misses", statementCacheMetrics.getMisses());
+        statementCache.put("hitRatio", statementCacheMetrics.getHitRatio());
+        jdbc.put("statementCache", statementCache);
+
+        //동적 쿼리 모양 hit/miss는 집계용, 실제 플랜 캐시 hit/miss는 hibernate 통계
+        Map<String, Object> queryPlanCache = new LinkedHashMap<>();
+        queryPlanCache.put("hits", queryPlanCacheMetrics.getHits());
+        queryPlanCache.put("misses", queryPlanCacheMetrics.getMisses());
+        queryPlanCache.put("hitRatio", queryPlanCacheMetrics.getHitRatio());
+        queryPlanCache.put("shapes", queryShapeRegistry.snapshot());
+        jdbc.put("queryPlanCache", queryPlanCache);
+
+        Map<String, Object> slowQueries = new LinkedHashMap<>();
+        slowQueries.put("thresholdMillis", properties.getSlowQueryThreshold().toMillis());
+        slowQueries.put("byMethod", slowQueryLog.snapshot());
+        jdbc.put("slowQueries", slowQueries);
+
+        Map<String, Object> lazyFetches = new LinkedHashMap<>();
+        lazyFetches.put("batchSize", lazyFetchMetrics.getBatchFetchSize());
+        lazyFetches.put("fetches", lazyFetchMetrics.snapshot());
+        jdbc.put("lazyFetches", lazyFetches);
+
+        jdbc.put("p6spySampleRate", properties.getP6spySampleRate());
+        return jdbc;
+    }
+
+    @DeleteOperation
+    public void clearSlowQueries() {
+        slowQueryLog.clear();
+    }
+
+    private Map<String, Object> pools() {
+        Map<String, Object> pools = new TreeMap<>();
+        for (Timer acquire : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            String pool = acquire.getId().getTag("pool");
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("active", gauge("hikaricp.connections.active", pool));
+            stats.put("idle", gauge("hikaricp.connections.idle", pool));
+            stats.put("pending", gauge("hikaricp.connections.pending", pool));
+            stats.put("max", gauge("hikaricp.connections.max", pool));
+            stats.put("min", gauge("hikaricp.connections.min", pool));
+            stats.put("timeouts", meterRegistry.find("hikaricp.connections.timeout").tag("pool", pool).counters().stream()
+                    .mapToDouble(Counter::count).sum());
+            stats.put("acquire", latency(acquire));
+            pools.put(pool, stats);
+        }
+        return pools;
+    }
+
+    private Double gauge(String name, String pool) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge == null ? null : gauge.value();
+    }
+
+    // 커넥션 획득 대기 시간 (percentile은 management.metrics.distribution.percentiles 설정 필요)
+    private static Map<String, Object> latency(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", snapshot.count());
+        latency.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+        latency.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            latency.put("p" + Math.round(percentile.percentile() * 100) + "Millis", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return latency;
+    }
+}
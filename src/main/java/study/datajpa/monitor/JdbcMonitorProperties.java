@@ -0,0 +1,22 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("datajpa.jdbc")
+public class JdbcMonitorProperties {
+    /** 이 시간 이상 걸린 SQL은 slow query로 기록 */
+    private Duration slowQueryThreshold = Duration.ofMillis(100);
+    /** 구간(리포지토리 메서드)별로 보관할 최근 slow query 수 */
+    private int slowQueryHistory = 10;
+    /** 드라이버 prepared statement 캐시 크기 (커넥션당, 드라이버 설정과 같게) */
+    private int statementCacheSize = 64;
+    /** p6spy를 거치는 커넥션 비율 (1 = 전부, 0 = 끔) */
+    private double p6spySampleRate = 1.0;
+}
@@ -0,0 +1,73 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 지연 로딩 fetch 횟수 (프록시/컬렉션 초기화로 실행된 조회) :: hibernate.lazy.fetch{type=entity|collection, name=Team|Team.members}
+ * default_batch_fetch_size 만큼 영속성 컨텍스트의 초기화 안 된 프록시/컬렉션을 IN 절로 한 번에 가져오므로 fetch 1회 = SQL 1회
+ * 조회한 엔티티 수보다 fetch 횟수가 많이 늘면 N+1 의심
+ * hibernate.generate_statistics=true 필요
+ */
+@Component
+public class LazyFetchMetrics implements MeterBinder {
+    private final Statistics statistics;
+    private final int batchFetchSize;
+
+    public LazyFetchMetrics(EntityManagerFactory emf) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        this.statistics = sessionFactory.getStatistics();
+        this.batchFetchSize = sessionFactory.getSessionFactoryOptions().getDefaultBatchFetchSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String entity : statistics.getEntityNames()) {
+            FunctionCounter.builder("hibernate.lazy.fetch", statistics, s -> s.getEntityStatistics(entity).getFetchCount())
+                    .tag("type", "entity")
+                    .tag("name", entityName(entity))
+                    .register(registry);
+        }
+        for (String role : statistics.getCollectionRoleNames()) {
+            FunctionCounter.builder("hibernate.lazy.fetch", statistics, s -> s.getCollectionStatistics(role).getFetchCount())
+                    .tag("type", "collection")
+                    .tag("name", roleName(role))
+                    .register(registry);
+        }
+    }
+
+    public int getBatchFetchSize() {
+        return batchFetchSize;
+    }
+
+    /** 엔티티/컬렉션별 fetch 횟수 */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> fetches = new TreeMap<>();
+        for (String entity : statistics.getEntityNames()) {
+            fetches.put(entityName(entity), statistics.getEntityStatistics(entity).getFetchCount());
+        }
+        for (String role : statistics.getCollectionRoleNames()) {
+            fetches.put(roleName(role), statistics.getCollectionStatistics(role).getFetchCount());
+        }
+        return fetches;
+    }
+
+    // study.datajpa.entity.Team -> Team
+    private static String entityName(String entity) {
+        return entity.substring(entity.lastIndexOf('.') + 1);
+    }
+
+    // study.datajpa.entity.Team.members -> Team.members
+    private static String roleName(String role) {
+        int property = role.lastIndexOf('.');
+        return entityName(role.substring(0, property)) + role.substring(property);
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.monitor;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DataSourceDecorator;
+import com.p6spy.engine.spy.P6DataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * p6spy 샘플링 모드 :: 커넥션을 꺼낼 때 p6spySampleRate 비율로만 p6spy 래퍼를 거친다.
+ * 샘플링되지 않은 커넥션은 원본 커넥션 그대로라 statement마다 래퍼, 리스너, 로깅 비용이 없다.
+ * 대신 SQL 통계(예산, N+1, slow query, statement 캐시)도 샘플링된 커넥션 기준이 된다.
+ * capture / FAIL 모드 예산 구간이 열려 있으면 항상 p6spy를 거친다.
+ */
+@Component
+@RequiredArgsConstructor
+public class P6SpySamplingDecorator implements DataSourceDecorator, Ordered {
+    private final JdbcMonitorProperties properties;
+
+    @Override
+    public DataSource decorate(String beanName, DataSource dataSource) {
+        if (!(dataSource instanceof P6DataSource)) {
+            return dataSource;
+        }
+        try {
+            return new SamplingDataSource(dataSource, dataSource.unwrap(DataSource.class));
+        } catch (SQLException e) {
+            throw new IllegalStateException("p6spy 원본 DataSource를 꺼낼 수 없음: " + beanName, e);
+        }
+    }
+
+    // p6spy(30) 다음에 적용
+    @Override
+    public int getOrder() {
+        return 40;
+    }
+
+    private class SamplingDataSource extends DelegatingDataSource {
+        private final DataSource rawDataSource;
+
+        SamplingDataSource(DataSource p6spyDataSource, DataSource rawDataSource) {
+            super(p6spyDataSource);
+            this.rawDataSource = rawDataSource;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return sampled() ? super.getConnection() : rawDataSource.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return sampled() ? super.getConnection(username, password) : rawDataSource.getConnection(username, password);
+        }
+
+        private boolean sampled() {
+            double sampleRate = properties.getP6spySampleRate();
+            return sampleRate >= 1 || SqlStatements.isStrict() || ThreadLocalRandom.current().nextDouble() < sampleRate;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * hibernate 쿼리 플랜 캐시(JPQL -> SQL 변환 결과) hit/miss
+ * IN 절 파라미터 개수가 매번 다르면 SQL 문자열이 달라져 miss가 늘어난다. (in_clause_parameter_padding으로 개선)
+ * hibernate.generate_statistics=true 필요
+ */
+@Component
+public class QueryPlanCacheMetrics implements MeterBinder {
+    private final Statistics statistics;
+
+    public QueryPlanCacheMetrics(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("hibernate.query.plan.cache", statistics, Statistics::getQueryPlanCacheHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.plan.cache", statistics, Statistics::getQueryPlanCacheMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.hit.ratio", statistics, QueryPlanCacheMetrics::hitRatio)
+                .register(registry);
+    }
+
+    public long getHits() {
+        return statistics.getQueryPlanCacheHitCount();
+    }
+
+    public long getMisses() {
+        return statistics.getQueryPlanCacheMissCount();
+    }
+
+    public double getHitRatio() {
+        return hitRatio(statistics);
+    }
+
+    static double hitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,76 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드별 실행 시간, SQL 실행 수, SQL 실행 시간 메트릭
+ * - repository.invocations (timer)
+ * - repository.sql.statements (summary)
+ * - repository.sql.time (timer)
+ * 메서드별 이름, meter는 처음 호출 시 만들어 재사용 (호출마다 builder 생성, registry 조회 없음)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Map<Method, Meters>> meters = new ConcurrentHashMap<>();//리포지토리 프록시 클래스 -> 메서드
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        Meters methodMeters = meters(joinPoint.getThis(), ((MethodSignature) joinPoint.getSignature()).getMethod());
+        long start = System.nanoTime();
+        try (SqlStatementScope scope = SqlStatements.open(methodMeters.method)) {
+            try {
+                return joinPoint.proceed();
+            } finally {
+                methodMeters.invocations.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                methodMeters.statements.record(scope.getCount());
+                methodMeters.sqlTime.record(scope.getElapsedNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Meters meters(Object proxy, Method method) {
+        return meters.computeIfAbsent(proxy.getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> new Meters(repositoryName(proxy) + "." + key.getName(), meterRegistry));
+    }
+
+    private static String repositoryName(Object proxy) {
+        for (Class<?> repositoryInterface : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+            if (Repository.class.isAssignableFrom(repositoryInterface) && repositoryInterface != Repository.class) {
+                return repositoryInterface.getSimpleName();
+            }
+        }
+        return proxy.getClass().getSimpleName();
+    }
+
+    private static class Meters {
+        private final String method;
+        private final Timer invocations;
+        private final DistributionSummary statements;
+        private final Timer sqlTime;
+
+        Meters(String method, MeterRegistry registry) {
+            this.method = method;
+            this.invocations = Timer.builder("repository.invocations").tag("method", method).register(registry);
+            this.statements = DistributionSummary.builder("repository.sql.statements").tag("method", method).register(registry);
+            this.sqlTime = Timer.builder("repository.sql.time").tag("method", method).register(registry);
+        }
+    }
+}
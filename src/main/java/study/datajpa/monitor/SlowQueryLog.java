@@ -0,0 +1,93 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 구간(리포지토리 메서드, 요청)별 slow query 기록
+ * - 최근 slowQueryHistory개의 SQL(파라미터 값 포함)만 보관
+ * - repository.sql.slow (counter) :: 구간별 counter는 처음 기록할 때 만들어 재사용
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowQueryLog {
+    private final JdbcMonitorProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;//p6spy 리스너가 DataSource보다 먼저 만들어지므로 지연 조회
+    private final Map<String, Entries> entries = new ConcurrentHashMap<>();
+
+    void record(String name, Supplier<String> sqlWithValues, long nanos) {
+        if (nanos < properties.getSlowQueryThreshold().toNanos()) {
+            return;
+        }
+        SlowQuery slowQuery = new SlowQuery(sqlWithValues.get(), TimeUnit.NANOSECONDS.toMillis(nanos), Instant.now());
+        Entries value = entries.computeIfAbsent(name, key -> new Entries());
+        value.add(slowQuery, properties.getSlowQueryHistory());
+        Counter counter = value.counter;
+        if (counter == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                counter = Counter.builder("repository.sql.slow").tag("method", name).register(registry);
+                value.counter = counter;
+            }
+        }
+        if (counter != null) {
+            counter.increment();
+        }
+        log.warn("[slow query] {} :: {}ms\n{}", name, slowQuery.getElapsedMillis(), slowQuery.getSql());
+    }
+
+    /** 구간 이름 -> (누적 건수, 최근 slow query) */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        entries.forEach((name, value) -> {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", value.count.get());
+            summary.put("recent", value.recent());
+            snapshot.put(name, summary);
+        });
+        return snapshot;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SlowQuery {
+        private final String sql;
+        private final long elapsedMillis;
+        private final Instant executedAt;
+    }
+
+    private static class Entries {
+        private final AtomicLong count = new AtomicLong();
+        private final Deque<SlowQuery> recent = new ArrayDeque<>();
+        private volatile Counter counter;//registry가 같은 id면 같은 counter를 반환하므로 경합 시 중복 생성해도 무방
+
+        synchronized void add(SlowQuery slowQuery, int history) {
+            count.incrementAndGet();
+            recent.addFirst(slowQuery);
+            while (recent.size() > history) {
+                recent.removeLast();
+            }
+        }
+
+        synchronized List<SlowQuery> recent() {
+            return new ArrayList<>(recent);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpa.monitor;
+
+import java.lang.annotation.*;
+
+/**
+ * 컨트롤러 엔드포인트별 SQL 실행 예산
+ * 지정하지 않은 엔드포인트는 datajpa.sql.budget.* 기본값 사용
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SqlBudget {
+    /** 요청 1건당 최대 SQL 실행 수 */
+    int maxStatements();
+
+    /** 같은 모양의 SQL이 이 횟수를 넘으면 N+1로 판단 */
+    int repeatThreshold() default 5;
+
+    SqlBudgetMode mode() default SqlBudgetMode.WARN;
+}
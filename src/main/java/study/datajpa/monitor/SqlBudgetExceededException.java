@@ -0,0 +1,7 @@
+package study.datajpa.monitor;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
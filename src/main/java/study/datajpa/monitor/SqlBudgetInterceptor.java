@@ -0,0 +1,74 @@
+package study.datajpa.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 컨트롤러 요청 단위 SQL 실행 예산 적용 + N+1(같은 SQL 반복) 감지
+ * 비동기 응답(CompletableFuture)은 요청 스레드에서 구간을 떼어내고, async dispatch가 끝날 때 집계한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+    private static final String SCOPE_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".scope";
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)
+                || request.getAttribute(SCOPE_ATTRIBUTE) != null) {//async dispatch :: 최초 요청에서 연 구간 사용
+            return true;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        SqlBudget budget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+        String name = endpoint(handlerMethod);
+        SqlStatementScope scope = budget == null
+                ? SqlStatements.open(name, properties.getMaxStatements(), properties.getRepeatThreshold(), properties.getMode())
+                : SqlStatements.open(name, budget.maxStatements(), budget.repeatThreshold(), budget.mode());
+        request.setAttribute(SCOPE_ATTRIBUTE, scope);
+        return true;
+    }
+
+    // 요청 스레드는 반납되므로 ThreadLocal에서만 제거 (SQL은 JdbcExecutor 작업 스레드에서 이 구간에 계속 기록)
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementScope scope = (SqlStatementScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            SqlStatements.close(scope);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementScope scope = (SqlStatementScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+        DistributionSummary.builder("http.server.sql.statements")
+                .tag("endpoint", scope.getName())
+                .register(meterRegistry)
+                .record(scope.getCount());
+
+        if (scope.isOverBudget()) {
+            log.warn("[SQL budget] {} :: {} statements (max {})", scope.getName(), scope.getCount(), scope.getMaxStatements());
+        }
+        scope.getRepeatedShapes().forEach((shape, times) ->
+                log.warn("[N+1] {} :: {} times\n{}", scope.getName(), times, shape));
+    }
+
+    private static String endpoint(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+}
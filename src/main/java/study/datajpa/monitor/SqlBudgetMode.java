@@ -0,0 +1,8 @@
+package study.datajpa.monitor;
+
+public enum SqlBudgetMode {
+    /** 요청 종료 시 로그만 남김 */
+    WARN,
+    /** 예산을 넘는 SQL은 실행 전에 SqlBudgetExceededException */
+    FAIL
+}
@@ -0,0 +1,16 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("datajpa.sql.budget")
+public class SqlBudgetProperties {
+    private boolean enabled = true;
+    private int maxStatements = 20;
+    private int repeatThreshold = 5;
+    private SqlBudgetMode mode = SqlBudgetMode.WARN;
+}
@@ -0,0 +1,32 @@
+package study.datajpa.monitor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너 :: 실행되는 모든 SQL을 현재 스레드의 SqlStatementScope에 기록
+ * + statement 캐시 hit/miss, slow query 기록
+ * (빈으로 등록하면 p6spy-spring-boot-starter가 리스너로 추가)
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementListener extends SimpleJdbcEventListener {
+    private final StatementCacheMetrics statementCacheMetrics;
+    private final SlowQueryLog slowQueryLog;
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        statementCacheMetrics.record(statementInformation.getConnectionInformation().getConnection(), statementInformation.getSql());
+        SqlStatements.beforeExecute(statementInformation.getSql());
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatements.afterExecute(statementInformation.getSql(), statementInformation::getSqlWithValues, timeElapsedNanos);
+        slowQueryLog.record(SqlStatements.currentName(), statementInformation::getSqlWithValues, timeElapsedNanos);
+    }
+}
@@ -0,0 +1,102 @@
+package study.datajpa.monitor;
+
+import lombok.Getter;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 요청, 리포지토리 메서드, 테스트 등 구간별 SQL 실행 통계
+ * 같은 스레드에서 열린 구간은 중첩 가능하고, 실행된 SQL은 열려있는 모든 구간에 기록된다.
+ */
+@Getter
+public class SqlStatementScope implements AutoCloseable {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String name;
+    private final int maxStatements;
+    private final int repeatThreshold;
+    private final SqlBudgetMode mode;
+
+    private int count;
+    private int selectCount;
+    private long elapsedNanos;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private final List<String> statements;//capture 구간만 실행 SQL(파라미터 값 포함) 보관
+
+    SqlStatementScope(String name, int maxStatements, int repeatThreshold, SqlBudgetMode mode, boolean capture) {
+        this.name = name;
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+        this.mode = mode;
+        this.statements = capture ? new ArrayList<>() : null;
+    }
+
+    // 실행 전 :: FAIL 모드면 예산 초과 SQL은 실행하지 않는다.
+    void beforeExecute(String sql, String shape) {
+        if (mode != SqlBudgetMode.FAIL) {
+            return;
+        }
+        if (count + 1 > maxStatements) {
+            throw new SqlBudgetExceededException(name + " :: SQL 실행 수 예산 초과 (max " + maxStatements + ")\n" + sql);
+        }
+        if (shapes.getOrDefault(shape, 0) + 1 > repeatThreshold) {
+            throw new SqlBudgetExceededException(name + " :: 같은 SQL 반복 실행 (N+1 의심, threshold " + repeatThreshold + ")\n" + sql);
+        }
+    }
+
+    void afterExecute(String shape, Supplier<String> sqlWithValues, long nanos) {
+        if (statements != null) {
+            statements.add(sqlWithValues.get());
+        }
+        count++;
+        elapsedNanos += nanos;
+        if (shape.regionMatches(true, 0, "select", 0, 6)) {
+            selectCount++;
+        }
+        shapes.merge(shape, 1, Integer::sum);
+    }
+
+    boolean isStrict() {
+        return statements != null || mode == SqlBudgetMode.FAIL;
+    }
+
+    public boolean isOverBudget() {
+        return count > maxStatements;
+    }
+
+    /** repeatThreshold를 넘게 반복 실행된 SQL 모양과 횟수 */
+    public Map<String, Integer> getRepeatedShapes() {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.forEach((shape, times) -> {
+            if (times > repeatThreshold) {
+                repeated.put(shape, times);
+            }
+        });
+        return repeated;
+    }
+
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    /** SqlStatements.capture()로 연 구간에서 실행된 SQL (파라미터 값 바인딩) */
+    public List<String> getStatements() {
+        return statements == null ? Collections.emptyList() : Collections.unmodifiableList(statements);
+    }
+
+    @Override
+    public void close() {
+        SqlStatements.close(this);
+    }
+
+    // 리터럴, 공백 차이를 제거한 SQL 모양
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,119 @@
+package study.datajpa.monitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 SQL 통계 구간 관리
+ * <pre>
+ * try (SqlStatementScope scope = SqlStatements.open("findAll")) {
+ *     ...
+ *     scope.getCount();
+ * }
+ * </pre>
+ */
+public final class SqlStatements {
+    private static final ThreadLocal<Deque<SqlStatementScope>> SCOPES = new ThreadLocal<>();
+
+    private SqlStatements() {
+    }
+
+    /** 예산 없이 통계만 수집 */
+    public static SqlStatementScope open(String name) {
+        return open(name, Integer.MAX_VALUE, Integer.MAX_VALUE, SqlBudgetMode.WARN);
+    }
+
+    public static SqlStatementScope open(String name, int maxStatements, int repeatThreshold, SqlBudgetMode mode) {
+        return push(new SqlStatementScope(name, maxStatements, repeatThreshold, mode, false));
+    }
+
+    /** 통계 + 실행된 SQL 원문(파라미터 값 포함) 수집 :: 테스트, 진단용 */
+    public static SqlStatementScope capture(String name) {
+        return push(new SqlStatementScope(name, Integer.MAX_VALUE, Integer.MAX_VALUE, SqlBudgetMode.WARN, true));
+    }
+
+    private static SqlStatementScope push(SqlStatementScope scope) {
+        Deque<SqlStatementScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        scopes.push(scope);
+        return scope;
+    }
+
+    static void close(SqlStatementScope scope) {
+        Deque<SqlStatementScope> scopes = SCOPES.get();
+        if (scopes != null && scopes.remove(scope) && scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    /**
+     * 현재 스레드에 열린 구간을 task 실행 스레드에서도 이어서 기록 (비동기 실행 :: JdbcExecutor)
+     * 넘겨준 뒤 원래 스레드는 SQL을 실행하지 않아야 한다. (구간은 스레드 안전하지 않음)
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        Deque<SqlStatementScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return task;
+        }
+        List<SqlStatementScope> captured = new ArrayList<>(scopes);//안쪽 구간부터
+        return () -> {
+            for (int i = captured.size() - 1; i >= 0; i--) {
+                push(captured.get(i));
+            }
+            try {
+                return task.get();
+            } finally {
+                captured.forEach(SqlStatements::close);
+            }
+        };
+    }
+
+    /** 가장 안쪽 구간 이름 (열린 구간이 없으면 "-") */
+    static String currentName() {
+        Deque<SqlStatementScope> scopes = SCOPES.get();
+        return scopes == null ? "-" : scopes.peek().getName();
+    }
+
+    /** SQL을 하나도 빠짐없이 봐야 하는 구간(capture, FAIL 모드 예산)이 열려 있는지 :: p6spy 샘플링 대상에서 빼지 않는다. */
+    static boolean isStrict() {
+        Deque<SqlStatementScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return false;
+        }
+        for (SqlStatementScope scope : scopes) {
+            if (scope.isStrict()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 열린 구간이 없으면 SQL 모양 계산 없이 바로 반환
+    static void beforeExecute(String sql) {
+        Deque<SqlStatementScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        String shape = SqlStatementScope.shape(sql);
+        for (SqlStatementScope scope : scopes) {
+            scope.beforeExecute(sql, shape);
+        }
+    }
+
+    static void afterExecute(String sql, Supplier<String> sqlWithValues, long nanos) {
+        Deque<SqlStatementScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        String shape = SqlStatementScope.shape(sql);
+        for (SqlStatementScope scope : scopes) {
+            scope.afterExecute(shape, sqlWithValues, nanos);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.monitor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * prepared statement 캐시 hit/miss (추정)
+ * 드라이버 캐시(H2 QUERY_CACHE_SIZE, MySQL prepStmtCacheSize, PostgreSQL preparedStatementCacheQueries)는
+ * 물리 커넥션별 SQL 문자열 키의 LRU라서, 같은 크기의 LRU로 실행 SQL을 따라가며 hit 여부를 계산한다.
+ * SQL 모양이 매번 다르면(IN 절 파라미터 개수 등) miss가 늘어난다.
+ * 모든 SQL 실행 경로에서 호출되므로 전역 lock 없이 :: 커넥션 -> LRU는 Caffeine(weakKeys, identity 비교), LRU lock은 커넥션별 (커넥션은 한 번에 한 스레드만 사용)
+ * 메트릭이 등록되지 않았으면(bindTo 전) 기록하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementCacheMetrics implements MeterBinder {
+    private final JdbcMonitorProperties properties;
+    private final Cache<Connection, Map<String, Boolean>> caches = Caffeine.newBuilder().weakKeys().build();//커넥션이 닫혀 GC되면 제거
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile boolean bound;
+
+    void record(Connection connection, String sql) {
+        if (!bound) {
+            return;
+        }
+        Map<String, Boolean> cache = caches.get(physical(connection), key -> lru(properties.getStatementCacheSize()));
+        synchronized (cache) {
+            if (cache.put(sql, Boolean.TRUE) != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jdbc.statement.cache", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("jdbc.statement.cache", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("jdbc.statement.cache.hit.ratio", this, StatementCacheMetrics::getHitRatio)
+                .register(registry);
+        bound = true;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    // 커넥션 풀 프록시 -> 물리 커넥션 (풀에 반납됐다 다시 나와도 같은 캐시)
+    private static Connection physical(Connection connection) {
+        try {
+            return connection.unwrap(Connection.class);
+        } catch (SQLException e) {
+            return connection;
+        }
+    }
+
+    private static Map<String, Boolean> lru(int size) {
+        return new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > size;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.spel.spi.EvaluationContextExtension;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.AuditStampSource;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * @Query SpEL에서 감사 정보 사용 :: 벌크 update는 엔티티 리스너를 거치지 않으므로 update 문에 감사 컬럼을 직접 추가
+ * <pre>
+ * update Member m set ..., m.lastModifedDate = :#{auditStamp.timestamp}, m.lastModifiedBy = :#{auditStamp.auditor}
+ * </pre>
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditStampEvaluationContextExtension implements EvaluationContextExtension {
+    private final AuditStampSource auditStampSource;
+
+    @Override
+    public String getExtensionId() {
+        return "audit";
+    }
+
+    @Override
+    public Map<String, Object> getProperties() {
+        return Collections.singletonMap("auditStamp", auditStampSource.current());
+    }
+}
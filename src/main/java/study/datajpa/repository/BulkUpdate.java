@@ -0,0 +1,56 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * id 범위 chunk 단위 벌크 update 정의
+ * update {table} set {set} where {idColumn} in (chunk 안에서 where 조건에 맞는 id)
+ */
+@Getter
+public class BulkUpdate {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final Class<?> domainType;
+    private final String table;
+    private final String idColumn;
+    private final String set;
+    private final String where;
+    private final Map<String, Object> params;
+    private final int chunkSize;
+
+    private BulkUpdate(Class<?> domainType, String table, String idColumn, String set, String where,
+                       Map<String, Object> params, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.domainType = domainType;
+        this.table = table;
+        this.idColumn = idColumn;
+        this.set = set;
+        this.where = where;
+        this.params = Collections.unmodifiableMap(new HashMap<>(params));
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param set   ex) "age = age + 1"
+     * @param where ex) "age >= :age" (named parameter)
+     */
+    public static BulkUpdate of(Class<?> domainType, String table, String idColumn, String set, String where,
+                                Map<String, Object> params) {
+        return new BulkUpdate(domainType, table, idColumn, set, where, params, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkUpdate withChunkSize(int chunkSize) {
+        return new BulkUpdate(domainType, table, idColumn, set, where, params, chunkSize);
+    }
+
+    // chunk 경계는 0부터 chunkSize 단위로 고정 :: 재실행 시 같은 id 범위가 같은 chunk가 된다.
+    long chunkStart(long id) {
+        return Math.floorDiv(id, chunkSize) * chunkSize;
+    }
+}
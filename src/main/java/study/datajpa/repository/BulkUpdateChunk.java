@@ -0,0 +1,26 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 커밋된 chunk 1개 :: id 범위 [fromId, toId), 변경된 row 수
+ * 진행률은 전체 chunk 수 대비 완료 chunk 수
+ */
+@Getter
+@ToString
+public class BulkUpdateChunk {
+    private final long fromId;
+    private final long toId;
+    private final int updatedRows;
+    private final int completedChunks;
+    private final int totalChunks;
+
+    BulkUpdateChunk(long fromId, long toId, int updatedRows, int completedChunks, int totalChunks) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.updatedRows = updatedRows;
+        this.completedChunks = completedChunks;
+        this.totalChunks = totalChunks;
+    }
+}
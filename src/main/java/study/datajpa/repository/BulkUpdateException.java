@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+/**
+ * 일부 chunk 실패 :: 완료된 chunk는 이미 커밋됨
+ * getResult().getCompletedChunks()를 넘겨 다시 실행하면 나머지 chunk만 처리한다.
+ */
+@Getter
+public class BulkUpdateException extends RuntimeException {
+    private final BulkUpdateResult result;
+
+    BulkUpdateException(BulkUpdateResult result, Throwable cause) {
+        super("bulk update failed :: " + result.getCompletedChunks().size() + "/" + result.getTotalChunks() + " chunks committed", cause);
+        this.result = result;
+    }
+}
@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+/**
+ * chunk 커밋마다 호출 (작업 스레드에서 동시에 호출될 수 있음)
+ * 재시작이 필요하면 chunk.getFromId()를 저장해 두었다가 completedChunks로 넘긴다.
+ */
+@FunctionalInterface
+public interface BulkUpdateListener {
+    BulkUpdateListener NONE = chunk -> {
+    };
+
+    void onChunkCompleted(BulkUpdateChunk chunk);
+}
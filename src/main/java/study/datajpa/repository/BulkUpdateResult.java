@@ -0,0 +1,28 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * chunk 벌크 update 결과 :: 변경 row 수, 완료된 chunk 시작 id (재시작용)
+ */
+@Getter
+@ToString
+public class BulkUpdateResult {
+    private final int updatedRows;
+    private final int totalChunks;
+    private final Set<Long> completedChunks;
+
+    BulkUpdateResult(int updatedRows, int totalChunks, Set<Long> completedChunks) {
+        this.updatedRows = updatedRows;
+        this.totalChunks = totalChunks;
+        this.completedChunks = Collections.unmodifiableSet(completedChunks);
+    }
+
+    public boolean isCompleted() {
+        return completedChunks.size() == totalChunks;
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.QueryHints;
+
+import javax.persistence.QueryHint;
+import java.lang.annotation.*;
+
+/**
+ * 조회 결과를 hibernate 쿼리 캐시에 저장 (쿼리 + 파라미터 단위)
+ * 엔티티 결과는 id만 저장하고 엔티티는 2차 캐시에서, DTO 결과는 컬럼 값만 저장
+ * 조회 대상 테이블에 insert/update/delete, 벌크 연산이 발생하면 해당 테이블 쿼리 결과 전체 무효화
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+public @interface CachedQuery {
+}
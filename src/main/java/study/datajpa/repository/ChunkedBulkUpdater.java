@@ -0,0 +1,227 @@
+package study.datajpa.repository;
+
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.AuditStamp;
+import study.datajpa.entity.AuditStampSource;
+import study.datajpa.entity.BaseEntity;
+import study.datajpa.entity.BaseTimeEntity;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 테이블 전체 UPDATE 한 번 대신 id 범위 chunk 단위로 나눠서 실행
+ * - chunk마다 별도 트랜잭션(REQUIRES_NEW) :: 락 보유 시간, undo 크기가 chunk 크기로 제한된다.
+ * - 고정 크기 스레드 풀에서 병렬 실행, chunk 커밋마다 BulkUpdateListener 호출
+ * - 실패 시 남은 chunk는 실행하지 않고 BulkUpdateException(완료 chunk 목록)을 던진다. 완료 chunk를 넘겨 재실행하면 이어서 처리
+ *   (커밋된 chunk는 캐시 제거, listener가 실패해도 완료 목록에 포함)
+ * - 변경된 id만 2차 캐시에서 제거하고, 호출한 트랜잭션의 영속성 컨텍스트에서도 해당 엔티티만 detach
+ * - BaseTimeEntity/BaseEntity는 감사 컬럼(lastModifedDate, lastModifiedBy)도 같이 update (모든 chunk가 같은 감사 정보)
+ * - @Version 엔티티는 version + 1 :: chunk 전에 읽은 엔티티를 나중에 update하면 낙관적 락 충돌로 감지
+ * 호출 트랜잭션에서 같은 row를 변경(flush)해 두었다면 chunk 트랜잭션이 락 대기하므로 변경 전에 호출한다.
+ * id 컬럼은 숫자(Long) 타입이어야 한다.
+ */
+@Component
+public class ChunkedBulkUpdater {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final ApplicationEventPublisher publisher;
+    private final AuditStampSource auditStampSource;
+    private final TransactionTemplate chunkTx;
+    private final ExecutorService executor;
+
+    public ChunkedBulkUpdater(NamedParameterJdbcTemplate jdbcTemplate,
+                              EntityManager em,
+                              EntityManagerFactory emf,
+                              ApplicationEventPublisher publisher,
+                              AuditStampSource auditStampSource,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${datajpa.bulk.threads:4}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.em = em;
+        this.emf = emf;
+        this.publisher = publisher;
+        this.auditStampSource = auditStampSource;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "bulk-update");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BulkUpdateResult execute(BulkUpdate update, Set<Long> completedChunks, BulkUpdateListener listener) {
+        List<Long> chunks = chunks(update);
+        Set<Long> completed = ConcurrentHashMap.newKeySet();
+        for (Long chunk : chunks) {
+            if (completedChunks.contains(chunk)) {
+                completed.add(chunk);
+            }
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource(update.getParams());
+        String set = update.getSet() + versionSet(update.getDomainType()) + auditSet(update.getDomainType(), params);
+        AtomicInteger updatedRows = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        Set<Long> affectedIds = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Long chunk : chunks) {
+            if (completed.contains(chunk)) {
+                continue;
+            }
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (failed.get()) {
+                    return;
+                }
+                try {
+                    List<Long> ids = chunkTx.execute(status -> updateChunk(update, set, params, chunk));
+                    //커밋 직후 완료로 기록 :: 이후 캐시 제거, listener가 실패해도 재실행 시 같은 chunk를 다시 update하지 않는다.
+                    affectedIds.addAll(ids);
+                    updatedRows.addAndGet(ids.size());
+                    completed.add(chunk);
+                    ids.forEach(id -> emf.getCache().evict(update.getDomainType(), id));
+                    listener.onChunkCompleted(new BulkUpdateChunk(chunk, chunk + update.getChunkSize(),
+                            ids.size(), completed.size(), chunks.size()));
+                } catch (RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }, executor));
+        }
+
+        RuntimeException failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (!affectedIds.isEmpty()) {
+            // 쿼리 캐시 결과는 id 단위로 지울 수 없으므로 query region만 비운다. (엔티티 region은 변경된 id만 제거)
+            emf.getCache().unwrap(org.hibernate.Cache.class).evictDefaultQueryRegion();
+            detachManaged(update.getDomainType(), affectedIds);
+            publisher.publishEvent(new EntityWriteEvent(update.getDomainType()));
+        }
+
+        BulkUpdateResult result = new BulkUpdateResult(updatedRows.get(), chunks.size(), new HashSet<>(completed));
+        if (failure != null) {
+            throw new BulkUpdateException(result, failure);
+        }
+        return result;
+    }
+
+    // where 조건에 맞는 id 범위를 chunk 시작 id 목록으로
+    private List<Long> chunks(BulkUpdate update) {
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "select min(" + update.getIdColumn() + ") min_id, max(" + update.getIdColumn() + ") max_id" +
+                        " from " + update.getTable() + " where " + update.getWhere(),
+                update.getParams());
+        Number min = (Number) range.get("min_id");
+        Number max = (Number) range.get("max_id");
+        List<Long> chunks = new ArrayList<>();
+        if (min == null) {
+            return chunks;
+        }
+        for (long start = update.chunkStart(min.longValue()); start <= max.longValue(); start += update.getChunkSize()) {
+            chunks.add(start);
+        }
+        return chunks;
+    }
+
+    private String versionSet(Class<?> domainType) {
+        AbstractEntityPersister persister = persister(domainType);
+        if (!persister.isVersioned()) {
+            return "";
+        }
+        String version = persister.getVersionColumnName();
+        return ", " + version + " = " + version + " + 1";
+    }
+
+    // 감사 컬럼 set 절 :: 컬럼 이름은 엔티티 매핑에서
+    private String auditSet(Class<?> domainType, MapSqlParameterSource params) {
+        if (!BaseTimeEntity.class.isAssignableFrom(domainType)) {
+            return "";
+        }
+        AbstractEntityPersister persister = persister(domainType);
+        AuditStamp stamp = auditStampSource.current();
+        params.addValue("_lastModifiedDate", stamp.getTimestamp());
+        String set = ", " + persister.getPropertyColumnNames("lastModifedDate")[0] + " = :_lastModifiedDate";
+        if (BaseEntity.class.isAssignableFrom(domainType)) {
+            params.addValue("_lastModifiedBy", stamp.getAuditor());
+            set += ", " + persister.getPropertyColumnNames("lastModifiedBy")[0] + " = :_lastModifiedBy";
+        }
+        return set;
+    }
+
+    private AbstractEntityPersister persister(Class<?> domainType) {
+        return (AbstractEntityPersister) emf.unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersister(domainType);
+    }
+
+    // chunk 트랜잭션 :: 대상 id 잠금 조회 후 해당 id만 update
+    private List<Long> updateChunk(BulkUpdate update, String set, MapSqlParameterSource updateParams, long chunk) {
+        MapSqlParameterSource params = new MapSqlParameterSource(updateParams.getValues())
+                .addValue("_from", chunk)
+                .addValue("_to", chunk + update.getChunkSize());
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select " + update.getIdColumn() + " from " + update.getTable() +
+                        " where " + update.getIdColumn() + " >= :_from and " + update.getIdColumn() + " < :_to" +
+                        " and (" + update.getWhere() + ") for update",
+                params, Long.class);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(
+                    "update " + update.getTable() + " set " + set +
+                            " where " + update.getIdColumn() + " in (:_ids)",
+                    params.addValue("_ids", ids));
+        }
+        return ids;
+    }
+
+    // 호출 트랜잭션의 영속성 컨텍스트에 있는 변경 대상 엔티티만 detach (clear 대신)
+    private void detachManaged(Class<?> domainType, Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(domainType);
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        for (Long id : ids) {
+            Object entity = persistenceContext.getEntity(session.generateEntityKey(id, persister));
+            if (entity != null) {
+                em.detach(entity);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,36 @@
+package study.datajpa.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * projection 인스턴스(row)마다 생성 :: 파싱/컴파일된 식과 EvaluationContext는 팩토리에서 공유
+ */
+class CompiledSpelMethodInterceptor implements MethodInterceptor {
+    private final MethodInterceptor delegate;
+    private final Object target;
+    private final Map<Method, Expression> expressions;
+    private final EvaluationContext evaluationContext;
+
+    CompiledSpelMethodInterceptor(MethodInterceptor delegate, Object target,
+                                  Map<Method, Expression> expressions, EvaluationContext evaluationContext) {
+        this.delegate = delegate;
+        this.target = target;
+        this.expressions = expressions;
+        this.evaluationContext = evaluationContext;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Expression expression = expressions.get(invocation.getMethod());
+        if (expression == null) {
+            return delegate.invoke(invocation);
+        }
+        return expression.getValue(evaluationContext, new ProjectionRoot(target, invocation.getArguments()));
+    }
+}
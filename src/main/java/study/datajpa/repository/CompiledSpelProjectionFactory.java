@@ -0,0 +1,85 @@
+package study.datajpa.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * open projection(@Value SpEL) 평가 비용 개선
+ * 기본 SpelAwareProxyProjectionFactory는 row(프록시)마다 식을 다시 파싱하고 EvaluationContext를 새로 만들어 인터프리터로 평가한다.
+ * - projection 인터페이스별로 한 번만 파싱해서 캐시
+ * - SpEL 컴파일러(MIXED) :: 몇 번 인터프리터로 평가한 뒤 바이트코드로 컴파일, 실패하면 인터프리터로 되돌아감
+ * - EvaluationContext 공유 (root 객체는 호출마다 ProjectionRoot로 전달)
+ * 컴파일 가능한 식만 효과가 있다. (ex. 문자열 + int 연결은 컴파일 불가 -> T(String).valueOf(..) 사용)
+ */
+public class CompiledSpelProjectionFactory extends SpelAwareProxyProjectionFactory {
+    private final Map<Class<?>, Map<Method, Expression>> expressionCache = new ConcurrentHashMap<>();
+    private final SpelExpressionParser parser;
+    private volatile StandardEvaluationContext evaluationContext;
+
+    public CompiledSpelProjectionFactory() {
+        this(SpelCompilerMode.MIXED);
+    }
+
+    public CompiledSpelProjectionFactory(SpelCompilerMode compilerMode) {
+        this.parser = new SpelExpressionParser(new SpelParserConfiguration(compilerMode, getClass().getClassLoader()));
+        this.evaluationContext = createEvaluationContext(null);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        super.setBeanFactory(beanFactory);
+        this.evaluationContext = createEvaluationContext(beanFactory);
+    }
+
+    @Override
+    protected MethodInterceptor postProcessAccessorInterceptor(MethodInterceptor interceptor, Object source, Class<?> projectionType) {
+        Map<Method, Expression> expressions = expressionCache.computeIfAbsent(projectionType, this::parseExpressions);
+        if (expressions.isEmpty()) {
+            return interceptor;
+        }
+        return new CompiledSpelMethodInterceptor(interceptor, source, expressions, evaluationContext);
+    }
+
+    private Map<Method, Expression> parseExpressions(Class<?> projectionType) {
+        Map<Method, Expression> expressions = new HashMap<>();
+        ReflectionUtils.doWithMethods(projectionType, method -> {
+            Value value = AnnotationUtils.findAnnotation(method, Value.class);
+            if (value != null) {
+                expressions.put(method, parser.parseExpression(value.value(), ParserContext.TEMPLATE_EXPRESSION));
+            }
+        }, method -> method.getDeclaringClass().isInterface());
+        return expressions.isEmpty() ? Collections.emptyMap() : expressions;
+    }
+
+    // 여러 스레드가 공유하므로 지연 초기화되는 accessor/resolver 목록을 미리 만들어 둔다.
+    private static StandardEvaluationContext createEvaluationContext(BeanFactory beanFactory) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        if (beanFactory != null) {
+            context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        }
+        context.getPropertyAccessors();
+        context.getMethodResolvers();
+        context.getConstructorResolvers();
+        context.getTypeLocator();
+        context.getTypeConverter();
+        return context;
+    }
+}
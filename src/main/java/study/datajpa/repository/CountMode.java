@@ -0,0 +1,15 @@
+package study.datajpa.repository;
+
+/**
+ * Page 조회 시 total count 계산 방식
+ */
+public enum CountMode {
+    /** 컨텐츠 조회 후 count 쿼리 실행 (스프링 데이터 기본 동작) */
+    EXACT,
+    /** count 쿼리를 별도 스레드/트랜잭션에서 컨텐츠 조회와 동시에 실행 */
+    ASYNC,
+    /** 조건별 count 결과를 TTL 동안 캐시, 엔티티 변경 시 무효화 */
+    CACHED,
+    /** 조건 없는 전체 조회는 DB 통계의 추정 row 수 사용, 조건이 있으면 CACHED와 동일 */
+    ESTIMATED
+}
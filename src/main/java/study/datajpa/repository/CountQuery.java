@@ -0,0 +1,41 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * count 쿼리 정의 :: 캐시 키(쿼리 이름 + 파라미터 List, 엔티티별 캐시)와 실제 count 실행 로직
+ */
+@Getter
+public class CountQuery {
+    private final Class<?> domainType;
+    private final String table;
+    private final List<Object> key;
+    private final boolean filtered;
+    private final LongSupplier query;
+
+    private CountQuery(Class<?> domainType, String table, List<Object> key, boolean filtered, LongSupplier query) {
+        this.domainType = domainType;
+        this.table = table;
+        this.key = key;
+        this.filtered = filtered;
+        this.query = query;
+    }
+
+    /** 조건 없는 전체 count :: ESTIMATED 모드에서 table 통계 사용 */
+    public static CountQuery all(Class<?> domainType, String table, LongSupplier query) {
+        return new CountQuery(domainType, table, Collections.singletonList("all"), false, query);
+    }
+
+    public static CountQuery filtered(Class<?> domainType, String name, LongSupplier query, Object... params) {
+        return new CountQuery(domainType, null, Arrays.asList(name, Arrays.asList(params.clone())), true, query);
+    }
+
+    public long execute() {
+        return query.getAsLong();
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 리포지토리 projection 생성에 CompiledSpelProjectionFactory 사용
+ * @ReadOnlyQuery가 있는 리포지토리는 ReadOnlyQueryInterceptor 추가
+ * (@EnableJpaRepositories(repositoryFactoryBeanClass = DataJpaRepositoryFactoryBean.class))
+ */
+public class DataJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID> extends JpaRepositoryFactoryBean<T, S, ID> {
+
+    private ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    public DataJpaRepositoryFactoryBean(Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        this.transactionManager = beanFactory.getBeanProvider(PlatformTransactionManager.class);
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(entityManager) {
+            @Override
+            protected ProjectionFactory getProjectionFactory(ClassLoader classLoader, BeanFactory beanFactory) {
+                CompiledSpelProjectionFactory projectionFactory = new CompiledSpelProjectionFactory();
+                projectionFactory.setBeanClassLoader(classLoader);
+                projectionFactory.setBeanFactory(beanFactory);
+                return projectionFactory;
+            }
+        };
+        factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+            if (ReadOnlyQueryInterceptor.appliesTo(repositoryInformation.getRepositoryInterface())) {
+                proxyFactory.addAdvice(new ReadOnlyQueryInterceptor(repositoryInformation, entityManager, transactionManager));
+            }
+        });
+        return factory;
+    }
+}
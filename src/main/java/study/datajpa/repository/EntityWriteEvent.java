@@ -0,0 +1,15 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+/**
+ * 엔티티 변경 이벤트 :: 리포지토리 save/delete/@Modifying 벌크 연산, flush된 insert/update/delete, JDBC 벌크 쓰기(ChunkedBulkUpdater, upsertAll)
+ */
+@Getter
+public class EntityWriteEvent {
+    private final Class<?> domainType;
+
+    public EntityWriteEvent(Class<?> domainType) {
+        this.domainType = domainType;
+    }
+}
@@ -0,0 +1,52 @@
+package study.datajpa.repository;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * flush 시 insert/update/delete된 엔티티마다 EntityWriteEvent 발행
+ * 리포지토리 메서드를 거치지 않는 변경(dirty checking, cascade)도 잡는다. (벌크 연산은 RepositoryWriteAspect)
+ */
+@Component
+public class EntityWriteListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    private final ApplicationEventPublisher publisher;
+
+    public EntityWriteListener(EntityManagerFactory emf, ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void publish(EntityPersister persister) {
+        publisher.publishEvent(new EntityWriteEvent(persister.getMappedClass()));
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * IN 절 조회 :: 중복 제거 후 chunkSize 단위로 나눠 실행하고 결과를 합친다.
+ * - chunkSize는 2의 제곱 :: hibernate in_clause_parameter_padding으로 패딩해도 DB 파라미터 제한을 넘지 않음
+ * - 트랜잭션 밖에서 호출하면 chunk들을 병렬로 (chunk마다 읽기 전용 트랜잭션, 결과 엔티티는 준영속)
+ * - 트랜잭션 안에서는 같은 영속성 컨텍스트를 써야 하므로 순서대로 실행
+ */
+@Component
+public class InClauseExecutor {
+
+    private final int chunkSize;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+
+    public InClauseExecutor(PlatformTransactionManager transactionManager,
+                            @Value("${datajpa.in-clause.chunk-size:512}") int chunkSize,
+                            @Value("${datajpa.in-clause.threads:4}") int threads) {
+        this.chunkSize = Integer.highestOneBit(chunkSize);//2의 제곱으로 내림
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "in-clause");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T, R> List<R> query(Collection<? extends T> values, Function<List<T>, List<R>> chunkQuery) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();//빈 IN () 는 SQL 오류
+        }
+        if (distinct.size() <= chunkSize) {
+            return chunkQuery.apply(distinct);
+        }
+
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+        }
+
+        List<R> result = new ArrayList<>();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            for (List<T> chunk : chunks) {
+                result.addAll(chunkQuery.apply(chunk));
+            }
+            return result;
+        }
+
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(chunks.size());
+        for (List<T> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> chunkQuery.apply(chunk)), executor));
+        }
+        for (CompletableFuture<List<R>> future : futures) {
+            result.addAll(join(future));
+        }
+        return result;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
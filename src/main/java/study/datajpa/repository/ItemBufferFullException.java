@@ -0,0 +1,11 @@
+package study.datajpa.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ItemBufferFullException extends RuntimeException {
+    public ItemBufferFullException(String message) {
+        super(message);
+    }
+}
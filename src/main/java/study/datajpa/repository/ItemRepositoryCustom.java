@@ -0,0 +1,9 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.Collection;
+
+public interface ItemRepositoryCustom {
+    UpsertResult upsertAll(Collection<Item> items);//saveAll은 id 할당 엔티티라 merge(건별 select) 발생 -> chunk 단위 MERGE
+}
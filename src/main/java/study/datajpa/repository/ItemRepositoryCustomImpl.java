@@ -0,0 +1,87 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.persister.entity.Queryable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.AuditStamp;
+import study.datajpa.entity.AuditStampSource;
+import study.datajpa.entity.Item;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    private static final int CHUNK_SIZE = 500;
+
+    private final EntityManager em;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AuditStampSource auditStampSource;
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * chunk 단위로 처리 :: MERGE USING batch 1회 (없는 row만 insert, 기존 row의 createDate는 덮어쓰지 않는다.)
+     * 신규/기존 건수는 batch update count로 계산 (insert 1, 기존 row 0)
+     * createDate는 엔티티 리스너를 거치지 않으므로 AuditStampSource에서 직접 구한다. (트랜잭션당 같은 시각, Clock)
+     * - 새로 insert한 item 객체에는 createDate를 채운다. (isNew() == false) 이미 있던 row의 item 객체는 조회하지 않으므로 그대로 (createDate null)
+     * - JDBC로 쓰므로 hibernate가 모른다 :: 커밋 시 item 테이블을 읽은 쿼리 캐시 결과 무효화 (native 쿼리 executeUpdate와 같은 방식), EntityWriteEvent 발행
+     * - 다른 트랜잭션이 같은 id를 동시에 insert하면 둘 다 NOT MATCHED로 판단할 수 있다.
+     *   이때 한쪽은 DuplicateKeyException으로 실패하고 트랜잭션 전체가 롤백된다. (ItemWriteBuffer는 flusher 1개라 해당 없음)
+     */
+    @Override
+    @Transactional
+    public UpsertResult upsertAll(Collection<Item> items) {
+        em.flush();//JPA 쓰기 지연 내용 먼저 반영
+        AuditStamp stamp = auditStampSource.current();
+        Timestamp now = Timestamp.valueOf(stamp.getTimestamp());
+
+        Map<String, List<Item>> unique = new LinkedHashMap<>();
+        for (Item item : items) {
+            unique.computeIfAbsent(item.getId(), id -> new ArrayList<>(1)).add(item);
+        }
+        List<String> ids = new ArrayList<>(unique.keySet());
+
+        UpsertResult result = new UpsertResult(0, 0);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            int[] counts = upsertChunk(chunk, now);
+            int inserted = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    inserted++;
+                    unique.get(chunk.get(i)).forEach(item -> item.stampCreated(stamp));
+                }
+            }
+            result = result.plus(new UpsertResult(inserted, chunk.size() - inserted));
+        }
+        if (result.getInserted() > 0) {
+            invalidateQueryCache();
+            publisher.publishEvent(new EntityWriteEvent(Item.class));
+        }
+        return result;
+    }
+
+    private int[] upsertChunk(List<String> ids, Timestamp now) {
+        MapSqlParameterSource[] batch = ids.stream()
+                .map(id -> new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("createDate", now))
+                .toArray(MapSqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(
+                "merge into item i using (select cast(:id as varchar) id, cast(:createDate as timestamp) create_date) s on i.id = s.id" +
+                        " when not matched then insert (id, create_date) values (s.id, s.create_date)", batch);
+    }
+
+    // item 테이블(query space)의 쿼리 캐시 timestamp 갱신 :: 쿼리 캐시 region 전체를 비우지 않는다. (flush마다 호출되므로)
+    private void invalidateQueryCache() {
+        EventSource session = em.unwrap(EventSource.class);
+        Queryable persister = (Queryable) session.getFactory().getMetamodel().entityPersister(Item.class);
+        session.getActionQueue().addAction(new BulkOperationCleanupAction(session, persister));
+    }
+}
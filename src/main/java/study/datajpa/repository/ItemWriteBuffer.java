@@ -0,0 +1,279 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Item;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Item 쓰기 지연(write-behind) 버퍼 :: save 1건마다 트랜잭션 1번 대신 모아서 upsertAll (chunk 단위 MERGE batch)
+ * - 생산자는 lock-free 링 버퍼(MpscRingBuffer)에 넣기만 하고, flusher 스레드 1개가 batch-size개 또는 flush-interval마다 꺼내서 저장
+ * - 버퍼가 가득 차면 offer-timeout까지 기다린 뒤 ItemBufferFullException(503) :: 저장 속도보다 빠르게 들어오는 만큼 생산자를 늦춘다. (backpressure)
+ * - ItemWriteMode.ACKNOWLEDGED :: batch 커밋까지 최대 ack-timeout 대기 (기본값은 datajpa.item-buffer.mode)
+ * - 종료(@PreDestroy) 시 남은 item을 모두 저장한 뒤 flusher 종료, 이후 write는 IllegalStateException
+ * - 종료와 동시에 버퍼에 들어간 item, flusher가 비정상 종료된 뒤 남은 item은 호출 스레드가 직접 저장 (유실, 무한 대기 방지)
+ * - upsertAll이라 같은 id를 다시 넣어도 createDate 유지
+ * - item.buffer.size, item.buffer.items{result=flushed|failed|rejected}, item.buffer.flush (timer)
+ */
+@Slf4j
+@Component
+public class ItemWriteBuffer implements MeterBinder {
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ItemRepositoryCustom writer;
+    private final MpscRingBuffer<PendingItem> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final long ackTimeoutNanos;
+    private final ItemWriteMode defaultMode;
+    private final Thread flusher;
+    private final Object orphanLock = new Object();//flusher 종료 후 남은 item 저장 :: 소비자는 한 번에 1 스레드
+    private volatile boolean closed;
+
+    private volatile Counter flushed;
+    private volatile Counter failed;
+    private volatile Counter rejected;
+    private volatile Timer flushTimer;
+
+    @Autowired
+    public ItemWriteBuffer(ItemRepository itemRepository,
+                           @Value("${datajpa.item-buffer.capacity:8192}") int capacity,
+                           @Value("${datajpa.item-buffer.batch-size:500}") int batchSize,
+                           @Value("${datajpa.item-buffer.flush-interval:10ms}") Duration flushInterval,
+                           @Value("${datajpa.item-buffer.offer-timeout:1s}") Duration offerTimeout,
+                           @Value("${datajpa.item-buffer.ack-timeout:30s}") Duration ackTimeout,
+                           @Value("${datajpa.item-buffer.mode:async}") ItemWriteMode defaultMode) {
+        this((ItemRepositoryCustom) itemRepository, capacity, batchSize, flushInterval, offerTimeout, ackTimeout, defaultMode);
+    }
+
+    ItemWriteBuffer(ItemRepositoryCustom writer, int capacity, int batchSize,
+                    Duration flushInterval, Duration offerTimeout, Duration ackTimeout, ItemWriteMode defaultMode) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.writer = writer;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.ackTimeoutNanos = ackTimeout.toNanos();
+        this.defaultMode = defaultMode;
+        this.flusher = new Thread(this::runFlusher, "item-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void write(Item item) {
+        write(item, defaultMode);
+    }
+
+    public void write(Item item, ItemWriteMode mode) {
+        PendingItem pending = new PendingItem(item, mode == ItemWriteMode.ACKNOWLEDGED ? new CompletableFuture<>() : null);
+        enqueue(pending);
+        if (pending.acknowledged != null) {
+            awaitAcknowledged(pending.acknowledged);
+        }
+    }
+
+    private void awaitAcknowledged(CompletableFuture<Void> acknowledged) {
+        try {
+            acknowledged.get(ackTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("item flush 응답 대기 시간 초과 (저장 여부 불확실)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("item flush 응답 대기 중 인터럽트 (저장 여부 불확실)", e);
+        }
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("item.buffer.size", buffer, MpscRingBuffer::size).register(registry);
+        flushed = Counter.builder("item.buffer.items").tag("result", "flushed").register(registry);
+        failed = Counter.builder("item.buffer.items").tag("result", "failed").register(registry);
+        rejected = Counter.builder("item.buffer.items").tag("result", "rejected").register(registry);
+        flushTimer = Timer.builder("item.buffer.flush").register(registry);
+    }
+
+    /** 남은 item을 모두 저장하고 flusher 종료 */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        flusher.join();
+        flushOrphans();
+    }
+
+    private void enqueue(PendingItem pending) {
+        checkOpen();
+        if (!buffer.offer(pending)) {
+            LockSupport.unpark(flusher);//가득 참 :: flush-interval을 기다리지 않고 바로 저장
+            long deadline = System.nanoTime() + offerTimeoutNanos;
+            while (!buffer.offer(pending)) {
+                checkOpen();
+                if (System.nanoTime() - deadline >= 0) {
+                    increment(rejected, 1);
+                    throw new ItemBufferFullException("item 쓰기 버퍼가 가득 참 (" + buffer.capacity() + ")");
+                }
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+        if (closed || !flusher.isAlive()) {
+            awaitFlusherExit();
+            flushOrphans();//close와 경합 :: flusher가 이미 버퍼가 빈 것을 보고 종료했을 수 있다.
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void awaitFlusherExit() {
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // flusher 종료 후 버퍼에 남은 item 저장 :: flusher가 없으므로 lock을 잡은 스레드가 유일한 소비자
+    private void flushOrphans() {
+        if (flusher.isAlive()) {
+            return;
+        }
+        synchronized (orphanLock) {
+            List<PendingItem> batch = new ArrayList<>(batchSize);
+            while (buffer.drain(batch::add, batchSize) > 0) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("ItemWriteBuffer가 종료되었습니다.");
+        }
+    }
+
+    // 종료 후에도 버퍼가 빌 때까지 저장, 비정상 종료 시 이후 write는 IllegalStateException
+    private void runFlusher() {
+        try {
+            flushLoop();
+        } catch (Throwable e) {
+            log.error("item flusher 비정상 종료", e);
+        } finally {
+            closed = true;
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingItem> batch = new ArrayList<>(batchSize);
+        long firstAt = 0;
+        while (!closed || !buffer.isEmpty() || !batch.isEmpty()) {
+            boolean empty = batch.isEmpty();
+            buffer.drain(batch::add, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            if (empty) {
+                firstAt = System.nanoTime();
+            }
+            long waited = System.nanoTime() - firstAt;
+            if (batch.size() >= batchSize || waited >= flushIntervalNanos || closed) {
+                flush(batch);
+                batch.clear();
+            } else {
+                LockSupport.parkNanos(this, flushIntervalNanos - waited);
+            }
+        }
+    }
+
+    private void flush(List<PendingItem> batch) {
+        List<Item> items = new ArrayList<>(batch.size());
+        for (PendingItem pending : batch) {
+            items.add(pending.item);
+        }
+        long start = System.nanoTime();
+        try {
+            writer.upsertAll(items);
+            record(System.nanoTime() - start);
+            increment(flushed, items.size());
+            for (PendingItem pending : batch) {
+                pending.complete(null);
+            }
+        } catch (Throwable e) {//Error도 잡아서 대기 중인 ACKNOWLEDGED write에 전달 (flusher는 계속 실행)
+            log.error("item flush 실패 ({}건)", items.size(), e);
+            increment(failed, items.size());
+            for (PendingItem pending : batch) {
+                pending.complete(e);
+            }
+        }
+    }
+
+    private void record(long nanos) {
+        Timer timer = flushTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+
+    private static class PendingItem {
+        private final Item item;
+        private final CompletableFuture<Void> acknowledged;
+
+        PendingItem(Item item, CompletableFuture<Void> acknowledged) {
+            this.item = item;
+            this.acknowledged = acknowledged;
+        }
+
+        void complete(Throwable failure) {
+            if (acknowledged == null) {
+                return;
+            }
+            if (failure == null) {
+                acknowledged.complete(null);
+            } else {
+                acknowledged.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package study.datajpa.repository;
+
+/**
+ * ItemWriteBuffer.write 응답 시점
+ */
+public enum ItemWriteMode {
+    ASYNC,//버퍼에 넣으면 바로 반환 :: flush 실패나 프로세스 종료(kill -9) 시 유실될 수 있음
+    ACKNOWLEDGED//해당 item이 포함된 batch가 커밋될 때까지 대기, flush 실패 시 예외
+}
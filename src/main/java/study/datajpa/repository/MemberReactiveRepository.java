@@ -0,0 +1,88 @@
+package study.datajpa.repository;
+
+import io.r2dbc.spi.Row;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberProjection;
+import study.datajpa.dto.MemberProjectionDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Member 논블로킹 조회 (R2DBC DatabaseClient)
+ * - 테이블, 컬럼 이름은 JPA 엔티티 매핑(hibernate 메타모델)에서 가져온다. :: 엔티티 매핑을 바꾸면 같이 바뀜
+ * - 엔티티가 아니라 DTO/projection으로 반환 (영속성 컨텍스트 없음, 읽기 전용)
+ * - 구독자가 요청한 만큼만 row를 내보낸다. (fetchSize :: 드라이버가 지원하면 DB에서도 fetchSize 단위로 가져옴)
+ * r2dbc-h2는 내부적으로 임베디드 H2(blocking)를 호출하므로 로컬 개발/테스트용, 운영은 r2dbc-postgresql 등 논블로킹 드라이버
+ */
+@Repository
+public class MemberReactiveRepository {
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    private final String findByAge;
+    private final String findByUsername;
+    private final String findProjectionsByUsername;
+
+    public MemberReactiveRepository(DatabaseClient databaseClient, EntityManagerFactory emf,
+                                    @Value("${datajpa.r2dbc.fetch-size:256}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        AbstractEntityPersister member = (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(Member.class);
+        AbstractEntityPersister team = (AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(Team.class);
+        String memberId = member.getIdentifierColumnNames()[0];
+        String username = column(member, "username");
+        String age = column(member, "age");
+
+        String memberDto = "select " + memberId + ", " + username + ", " + age + " from " + member.getTableName();
+        this.findByAge = memberDto + " where " + age + " = :age order by " + memberId;
+        this.findByUsername = memberDto + " where " + username + " = :username";
+        this.findProjectionsByUsername = "select m." + memberId + ", m." + username + ", t." + column(team, "name") +
+                " from " + member.getTableName() + " m" +
+                " left outer join " + team.getTableName() + " t on m." + column(member, "team") + " = t." + team.getIdentifierColumnNames()[0] +
+                " where m." + username + " = :username";
+    }
+
+    public Flux<MemberDto> findByAge(int age) {
+        return databaseClient.sql(findByAge)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind("age", age)
+                .map(MemberReactiveRepository::memberDto)
+                .all();
+    }
+
+    public Flux<MemberDto> findByUsername(String username) {
+        return databaseClient.sql(findByUsername)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind("username", username)
+                .map(MemberReactiveRepository::memberDto)
+                .all();
+    }
+
+    /** MemberRepository.findMemberProjections와 같은 team 조인 projection */
+    public Flux<MemberProjection> findProjectionsByUsername(String username) {
+        return databaseClient.sql(findProjectionsByUsername)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind("username", username)
+                .map(row -> (MemberProjection) new MemberProjectionDto(row.get(0, Long.class), row.get(1, String.class), row.get(2, String.class)))
+                .all();
+    }
+
+    private static MemberDto memberDto(Row row) {
+        Integer age = row.get(2, Integer.class);
+        return new MemberDto(row.get(0, Long.class), row.get(1, String.class), age == null ? 0 : age);
+    }
+
+    private static String column(AbstractEntityPersister persister, String property) {
+        return persister.getPropertyColumnNames(property)[0];
+    }
+}
@@ -10,19 +10,27 @@ import study.datajpa.entity.Member;
 
 import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
+@ReadOnlyQuery//쿼리 메서드는 읽기 전용 트랜잭션 (라우팅 시 replica)
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
+    @CachedQuery
     List<Member> findByUsername(String username);
 
+    @CachedQuery
     @Query(name="Member.findUser")
     List<Member> findUser(@Param("username") String username);
 
+    @CachedQuery
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findByUsernameAndAge(@Param("username") String username, @Param("age") int age);
 
+    @CachedQuery
     @Query("select m from Member m where m.username in :names")
     List<Member> findByUsernames(@Param("names") List<String> names);
 
+    @CachedQuery
+    @ReadOnlyQuery
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, m.age) from Member m where username = :username")
     List<MemberDto> findMemberDto(@Param("username") String username);
 
@@ -35,7 +43,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Page<Member> findByAge2(@Param("age") int age, Pageable pageable);
 
     @Modifying(clearAutomatically = true)// 해당옵션 설정 시 update 후 영속성컨텍스트 클리어!!
-    @Query("update Member m set m.age = m.age+1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age+1, m.version = m.version+1," +
+            " m.lastModifedDate = :#{auditStamp.timestamp}, m.lastModifiedBy = :#{auditStamp.auditor}" +
+            " where m.age >= :age")//version 증가 :: 벌크 update 전에 읽은 엔티티의 update는 충돌로 감지, 감사 컬럼 :: AuditStampEvaluationContextExtension
     int bulkUpdate(@Param("age") int age);
 
     @Override
@@ -45,16 +55,33 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph("Member.team")
     List<Member> findFetchByUsername(String username);
 
-    @QueryHints(value = @QueryHint(name="org.hibernate.readOnly", value="true"))
+    @ReadOnlyQuery//readOnly 힌트 대신 읽기 전용 트랜잭션/세션 (스냅샷, flush, 변경 감지 없음)
     List<Member> findReadOnlyByUsername(String username);
 
+    // 전체 export용 :: DTO 생성자 조회라 영속성 컨텍스트에 엔티티가 쌓이지 않고, fetch size 단위로 DB에서 읽어온다.
+    // Stream은 트랜잭션 안에서 사용 후 반드시 close
+    @QueryHints(value = @QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, m.age) from Member m order by m.id")
+    Stream<MemberDto> streamAllDto();
+
+    // 페이징 DTO 조회 :: findAll(pageable).map(MemberDto::new)와 같은 결과를 엔티티/영속성 컨텍스트 없이 생성자 조회로
+    // Pageable의 Sort는 m 기준으로 붙는다. (id, username, age) :: team.name은 암묵적 inner join이라 팀 없는 회원이 빠지고 countQuery와 어긋남
+    @Query(value = "select new study.datajpa.dto.MemberDto(m.id, m.username, m.age) from Member m",
+            countQuery = "select count(m) from Member m")
+    Page<MemberDto> findAllDto(Pageable pageable);
+
+    @EntityGraph(attributePaths = "team")//open projection에서 target.team.name 사용 -> 지연로딩 N+1 방지
     List<UsernameOnly> findProjectionsByUsername(String username);//인터페이스 방식 projections
 
+    @ReadOnlyQuery
     List<UsernameOnlyDto> findUsernameDtoByUsername(String username);//클래스 방식 projections
 
     <T> List<T> findUsernameByUsername(String username, Class<T> type);//동적 방식 projections
 
-    List<NestedClosedProjection> findNestedProjectionsByUsername(String username);// 중첩 방식 projections
+    // 중첩 방식 projections :: 필요한 컬럼만 select해서 불변 DTO로 생성 (인터페이스 projection은 Team 전체 select + 프록시)
+    @Query("select new study.datajpa.dto.NestedClosedProjectionDto(m.username, t.id, t.name)" +
+            " from Member m left join m.team t where m.username = :username")
+    List<NestedClosedProjection> findNestedProjectionsByUsername(@Param("username") String username);
 
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
@@ -62,6 +89,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query(value="select m.member_id as id, m.username, t.name as teamName " +
                 " from member m " +
                 " left outer join team t on m.team_id = t.team_id " +
-                " where m.username = ?",nativeQuery = true)
+                " where m.username = ?",
+            countQuery = "select count(*) from member m where m.username = ?",//native 쿼리는 count 쿼리 자동 생성 불가 (count(m))
+            nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(@Param("username") String username, Pageable pageable);
+
+    // 생성자 조회 :: row마다 Map + 프록시를 만드는 native projection(findByNativeProjection) 대신 불변 DTO
+    @Query(value = MEMBER_PROJECTION_QUERY, countQuery = MEMBER_PROJECTION_COUNT_QUERY)
+    Page<MemberProjection> findMemberProjections(@Param("username") String username, Pageable pageable);
 }
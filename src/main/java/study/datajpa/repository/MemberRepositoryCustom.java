@@ -1,9 +1,43 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.CursorSlice;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberProjection;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface MemberRepositoryCustom {
+    // findMemberProjections :: MemberRepository(@Query)와 CountMode 버전이 같은 쿼리 사용, count 쿼리에는 left join 불필요
+    String MEMBER_PROJECTION_QUERY = "select new study.datajpa.dto.MemberProjectionDto(m.id, m.username, t.name)" +
+            " from Member m left join m.team t where m.username = :username";
+    String MEMBER_PROJECTION_COUNT_QUERY = "select count(m) from Member m where m.username = :username";
+
     List<Member> findMemberCustom();
+
+    List<Member> findByUsernamesInChunks(Collection<String> names);//IN 절 chunk 분할 조회 (InClauseExecutor, chunk마다 읽기 전용 트랜잭션)
+
+    CursorSlice<Member> findAllByKeyset(MemberCursor after, int size);//keyset 페이징 (age desc, id asc)
+
+    CursorSlice<Member> findByAge(int age, MemberCursor after, int size);//keyset 페이징 (id asc)
+
+    // count 계산 방식 지정 페이징 (CountMode)
+    Page<Member> findAll(Pageable pageable, CountMode countMode);
+
+    Page<Member> findByAge(int age, Pageable pageable, CountMode countMode);
+
+    Page<MemberProjection> findMemberProjections(String username, Pageable pageable, CountMode countMode);
+
+    // 조건 조합 검색 (Criteria) :: 정렬 가능 속성 id, username, age, teamName
+    Page<Member> search(MemberSearchCondition condition, Pageable pageable, CountMode countMode);
+
+    int saveAllBatched(Iterable<Member> members, int batchSize);//대량 저장 :: JDBC batch + batchSize 단위 flush/clear
+
+    // bulkUpdate(age)의 chunk 버전 :: id 범위별 짧은 트랜잭션 병렬 실행, completedChunks로 재시작
+    BulkUpdateResult bulkUpdateInChunks(int age, Set<Long> completedChunks, BulkUpdateListener listener);
 }
@@ -1,19 +1,209 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.CursorSlice;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberProjection;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom{ // 커스텀 클래스명 규칙 : (Repository명 or 인터페이스명) + Impl
 
     private final EntityManager em;
+    private final PageCounter pageCounter;
+    private final ChunkedBulkUpdater bulkUpdater;
+    private final InClauseExecutor inClauseExecutor;
+    private final QueryShapeRegistry queryShapeRegistry;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    public List<Member> findByUsernamesInChunks(Collection<String> names) {
+        return inClauseExecutor.query(names, chunk -> em.createQuery(
+                        "select m from Member m where m.username in :names", Member.class)
+                .setParameter("names", chunk)
+                .getResultList());
+    }
+
+    /**
+     * offset 대신 마지막 row의 (age, id) 이후부터 조회 :: 페이지 깊이와 상관없이 비용 일정, count 쿼리 없음
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<Member> findAllByKeyset(MemberCursor after, int size) {
+        checkSize(size);
+        TypedQuery<Member> query;
+        if (after == null) {
+            query = em.createQuery("select m from Member m order by m.age desc, m.id asc", Member.class);
+        } else {
+            //age <= :age :: (age, id) 인덱스 범위 조회
+            query = em.createQuery("select m from Member m" +
+                            " where m.age <= :age and (m.age < :age or m.id > :id)" +
+                            " order by m.age desc, m.id asc", Member.class)
+                    .setParameter("age", after.getAge())
+                    .setParameter("id", after.getId());
+        }
+        return toSlice(query, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<Member> findByAge(int age, MemberCursor after, int size) {
+        checkSize(size);
+        Long afterId = after == null ? 0L : after.getId();
+        TypedQuery<Member> query = em.createQuery("select m from Member m" +
+                        " where m.age = :age and m.id > :id" +
+                        " order by m.id asc", Member.class)
+                .setParameter("age", age)
+                .setParameter("id", afterId);
+        return toSlice(query, size);
+    }
+
+    private static void checkSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1: " + size);
+        }
+    }
+
+    // size+1 건을 조회해서 다음 페이지 존재 여부 판단 (size >= 1)
+    private CursorSlice<Member> toSlice(TypedQuery<Member> query, int size) {
+        List<Member> result = query.setMaxResults(size + 1).getResultList();
+        boolean hasNext = result.size() > size;
+        List<Member> content = hasNext ? result.subList(0, size) : result;
+        String nextCursor = hasNext ? MemberCursor.of(content.get(size - 1)).encode() : null;
+        return new CursorSlice<>(content, size, hasNext, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> findAll(Pageable pageable, CountMode countMode) {
+        return pageCounter.page(pageable,
+                () -> paged(em.createQuery(QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m"), Member.class), pageable)
+                        .getResultList(),
+                CountQuery.all(Member.class, "member",
+                        () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult()),
+                countMode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> findByAge(int age, Pageable pageable, CountMode countMode) {
+        return pageCounter.page(pageable,
+                () -> paged(em.createQuery(QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m"), Member.class), pageable)
+                        .setParameter("age", age)
+                        .getResultList(),
+                CountQuery.filtered(Member.class, "findByAge",
+                        () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                                .setParameter("age", age)
+                                .getSingleResult(), age),
+                countMode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberProjection> findMemberProjections(String username, Pageable pageable, CountMode countMode) {
+        return pageCounter.page(pageable,
+                () -> paged(em.createQuery(QueryUtils.applySorting(MEMBER_PROJECTION_QUERY, pageable.getSort(), "m"), MemberProjection.class), pageable)
+                        .setParameter("username", username)
+                        .getResultList(),
+                CountQuery.filtered(Member.class, "findMemberProjections",
+                        () -> em.createQuery(MEMBER_PROJECTION_COUNT_QUERY, Long.class)
+                                .setParameter("username", username)
+                                .getSingleResult(), username),
+                countMode);
+    }
+
+    /**
+     * 조건 조합 검색 :: 조합마다 메서드/JPQL 문자열을 만드는 대신 Criteria로 조립 (MemberSearchQuery)
+     * 같은 조건 조합 + 정렬은 같은 JPQL이라 쿼리 플랜 캐시 hit, 조합별 hit/miss는 QueryShapeRegistry로 집계
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> search(MemberSearchCondition condition, Pageable pageable, CountMode countMode) {
+        MemberSearchQuery search = new MemberSearchQuery(condition, pageable.getSort());
+        queryShapeRegistry.register("Member.search", search.shape());
+        return pageCounter.page(pageable,
+                () -> paged(search.contentQuery(em), pageable).getResultList(),
+                CountQuery.filtered(Member.class, "search", () -> search.countQuery(em).getSingleResult(), search.values()),
+                countMode);
+    }
+
+    /**
+     * 대량 저장 :: persist를 batchSize 단위로 JDBC batch insert 처리하고 flush 후 이 메서드가 저장한 엔티티만 detach
+     * (clear를 쓰면 호출한 쪽 트랜잭션이 들고 있던 엔티티까지 준영속이 되어 이후 변경이 조용히 유실된다.)
+     * 시퀀스는 pooled(allocationSize=50)라 id 채번 round-trip도 50건당 1회
+     * 아직 저장되지 않은 Team은 같이 저장, detach 이후 준영속 Team은 FK 값만 사용
+     */
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        Session session = em.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            int count = 0;
+            List<Object> persisted = new ArrayList<>(batchSize);
+            for (Member member : members) {
+                Team team = member.getTeam();
+                if (team != null && team.getId() == null) {
+                    em.persist(team);
+                    persisted.add(team);
+                }
+                em.persist(member);
+                persisted.add(member);
+                if (++count % batchSize == 0) {
+                    flushAndDetach(persisted);
+                }
+            }
+            flushAndDetach(persisted);
+            return count;
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+    }
+
+    private void flushAndDetach(List<Object> persisted) {
+        em.flush();
+        persisted.forEach(em::detach);
+        persisted.clear();
+    }
+
+    private static <Q extends Query> Q paged(Q query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    @Override
+    public BulkUpdateResult bulkUpdateInChunks(int age, Set<Long> completedChunks, BulkUpdateListener listener) {
+        BulkUpdate update = BulkUpdate.of(Member.class, "member", "member_id",
+                "age = age + 1", "age >= :age", Collections.singletonMap("age", age));
+        return bulkUpdater.execute(update, completedChunks, listener);
+    }
 }
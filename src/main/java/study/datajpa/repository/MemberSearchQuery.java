@@ -0,0 +1,142 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Member_;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.Team_;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * MemberRepositoryCustom.search의 Criteria 쿼리 (JPA 메타모델 Member_, Team_)
+ * - 조건은 항상 username, age >=, age <=, team.name 순서, 값은 모두 파라미터 :: 값이 달라도 같은 조합이면 같은 JPQL
+ * - team.name 조건은 inner join, team.name 정렬만 있으면 left join (팀 없는 회원 포함)
+ * - 정렬은 SORTABLE 속성만(그 외 400), 방향 외 옵션(ignoreCase 등)은 무시, 마지막에 id asc 추가 :: 페이지 간 순서 고정
+ * - 같은 속성은 처음 것만, id(unique) 뒤의 정렬은 결과가 같으므로 버림 :: sort=age&sort=age 같은 요청이 새 모양이 되지 않도록
+ */
+class MemberSearchQuery {
+    static final List<String> SORTABLE = Arrays.asList("id", "username", "age", "teamName");
+
+    private final String username;
+    private final Integer ageGoe;
+    private final Integer ageLoe;
+    private final String teamName;
+    private final List<Sort.Order> orders = new ArrayList<>();
+
+    MemberSearchQuery(MemberSearchCondition condition, Sort sort) {
+        this.username = StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null;
+        this.ageGoe = condition.getAgeGoe();
+        this.ageLoe = condition.getAgeLoe();
+        this.teamName = StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null;
+        Set<String> properties = new HashSet<>();
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new UnsortablePropertyException("정렬할 수 없는 속성입니다: " + order.getProperty() + " (가능: " + SORTABLE + ")");
+            }
+            if (properties.contains("id")) {
+                continue;//id 이후는 순서에 영향 없음 (속성 검사만)
+            }
+            if (properties.add(order.getProperty())) {
+                orders.add(new Sort.Order(order.getDirection(), order.getProperty()));
+            }
+        }
+        if (!properties.contains("id")) {
+            orders.add(Sort.Order.asc("id"));
+        }
+    }
+
+    /** 사용한 조건 + 정렬 ex) "username,ageGoe order by age DESC,id ASC" */
+    String shape() {
+        List<String> conditions = new ArrayList<>();
+        if (username != null) conditions.add("username");
+        if (ageGoe != null) conditions.add("ageGoe");
+        if (ageLoe != null) conditions.add("ageLoe");
+        if (teamName != null) conditions.add("teamName");
+        return String.join(",", conditions) + " order by " + orders.stream()
+                .map(order -> order.getProperty() + " " + order.getDirection())
+                .collect(Collectors.joining(","));
+    }
+
+    /** count 캐시 키 */
+    Object[] values() {
+        return new Object[]{username, ageGoe, ageLoe, teamName};
+    }
+
+    TypedQuery<Member> contentQuery(EntityManager em) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> query = cb.createQuery(Member.class);
+        Root<Member> member = query.from(Member.class);
+        Join<Member, Team> team = join(member, orders.stream().anyMatch(order -> order.getProperty().equals("teamName")));
+        query.select(member)
+                .where(predicates(cb, member, team))
+                .orderBy(orders.stream().map(order -> order(cb, member, team, order)).collect(Collectors.toList()));
+        return bind(em.createQuery(query));
+    }
+
+    TypedQuery<Long> countQuery(EntityManager em) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Member> member = query.from(Member.class);
+        Join<Member, Team> team = join(member, false);
+        query.select(cb.count(member))
+                .where(predicates(cb, member, team));
+        return bind(em.createQuery(query));
+    }
+
+    private Join<Member, Team> join(Root<Member> member, boolean sortByTeam) {
+        if (teamName != null) {
+            return member.join(Member_.team, JoinType.INNER);
+        }
+        return sortByTeam ? member.join(Member_.team, JoinType.LEFT) : null;
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Member> member, Join<Member, Team> team) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (username != null) {
+            predicates.add(cb.equal(member.get(Member_.username), cb.parameter(String.class, "username")));
+        }
+        if (ageGoe != null) {
+            predicates.add(cb.greaterThanOrEqualTo(member.get(Member_.age), cb.parameter(Integer.class, "ageGoe")));
+        }
+        if (ageLoe != null) {
+            predicates.add(cb.lessThanOrEqualTo(member.get(Member_.age), cb.parameter(Integer.class, "ageLoe")));
+        }
+        if (teamName != null) {
+            predicates.add(cb.equal(team.get(Team_.name), cb.parameter(String.class, "teamName")));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static Order order(CriteriaBuilder cb, Root<Member> member, Join<Member, Team> team, Sort.Order order) {
+        Expression<?> property;
+        switch (order.getProperty()) {
+            case "username":
+                property = member.get(Member_.username);
+                break;
+            case "age":
+                property = member.get(Member_.age);
+                break;
+            case "teamName":
+                property = team.get(Team_.name);
+                break;
+            default:
+                property = member.get(Member_.id);
+        }
+        return order.isAscending() ? cb.asc(property) : cb.desc(property);
+    }
+
+    private <T> TypedQuery<T> bind(TypedQuery<T> query) {
+        if (username != null) query.setParameter("username", username);
+        if (ageGoe != null) query.setParameter("ageGoe", ageGoe);
+        if (ageLoe != null) query.setParameter("ageLoe", ageLoe);
+        if (teamName != null) query.setParameter("teamName", teamName);
+        return query;
+    }
+}
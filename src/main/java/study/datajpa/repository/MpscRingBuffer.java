@@ -0,0 +1,77 @@
+package study.datajpa.repository;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * bounded lock-free MPSC(생산자 여러 스레드, 소비자 1 스레드) 링 버퍼
+ * - 생산자 :: producerIndex CAS로 칸을 예약한 뒤 원소를 기록, 가득 차면 false (기다리지 않음)
+ * - 소비자 :: 기록된 칸만 꺼내고 비운다. 예약만 되고 아직 기록 전인 칸에서 멈추므로 순서 유지
+ * - 용량은 2의 제곱으로 올림 (index & mask)
+ */
+final class MpscRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(E element) {
+        Objects.requireNonNull(element);
+        long capacity = mask + 1;
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() >= capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        slots.lazySet(offset(index), element);
+        return true;
+    }
+
+    /** 최대 limit개를 꺼내서 consumer에 전달 :: 소비자 스레드에서만 호출 */
+    int drain(Consumer<E> consumer, int limit) {
+        long index = consumerIndex.get();
+        int drained = 0;
+        while (drained < limit) {
+            int offset = offset(index);
+            E element = slots.get(offset);
+            if (element == null) {
+                break;//비었거나 예약 후 기록 전
+            }
+            slots.lazySet(offset, null);
+            consumerIndex.lazySet(++index);
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    private int offset(long index) {
+        return (int) (index & mask);
+    }
+}
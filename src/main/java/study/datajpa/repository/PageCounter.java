@@ -0,0 +1,164 @@
+package study.datajpa.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Page 결과의 total count 계산 전략 (CountMode) 처리
+ * - ASYNC : count 쿼리를 별도 스레드의 읽기 전용 트랜잭션에서 실행 (현재 트랜잭션의 커밋 전 변경은 보이지 않음)
+ * - CACHED : 엔티티 타입별 + 조건별 캐시 (Caffeine, 타입별 최대 cache-size개), TTL 만료 또는 EntityWriteEvent 수신 시 무효화
+ *   EntityWriteEvent :: 리포지토리 save/delete/벌크 연산(RepositoryWriteAspect), flush된 엔티티 변경(EntityWriteListener, dirty checking 포함),
+ *   ChunkedBulkUpdater, upsertAll :: 그 밖의 JDBC 직접 쓰기는 TTL까지 이전 count
+ * - ESTIMATED : 조건 없는 count는 H2 통계(ROW_COUNT_ESTIMATE) 사용
+ */
+@Component
+public class PageCounter {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService countExecutor;
+    private final Duration ttl;
+    private final long cacheSize;
+    private final Map<Class<?>, Cache<Object, Long>> cache = new ConcurrentHashMap<>();
+
+    public PageCounter(EntityManager em,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${datajpa.count.cache-ttl:30s}") Duration ttl,
+                       @Value("${datajpa.count.cache-size:1000}") long cacheSize,
+                       @Value("${datajpa.count.async-threads:4}") int asyncThreads) {
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.countExecutor = Executors.newFixedThreadPool(asyncThreads, r -> {
+            Thread thread = new Thread(r, "page-count");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ttl = ttl;
+        this.cacheSize = cacheSize;
+    }
+
+    public <T> Page<T> page(Pageable pageable, Supplier<List<T>> contentQuery, CountQuery countQuery, CountMode mode) {
+        switch (mode) {
+            case ASYNC:
+                CompletableFuture<Long> total = CompletableFuture.supplyAsync(
+                        () -> readOnlyTx.execute(status -> countQuery.execute()), countExecutor);
+                List<T> content = contentQuery.get();
+                return PageableExecutionUtils.getPage(content, pageable, () -> join(total));
+            case CACHED:
+                return PageableExecutionUtils.getPage(contentQuery.get(), pageable, () -> cached(countQuery));
+            case ESTIMATED:
+                return PageableExecutionUtils.getPage(contentQuery.get(), pageable,
+                        () -> countQuery.isFiltered() ? cached(countQuery) : estimate(countQuery.getTable()));
+            default:
+                return PageableExecutionUtils.getPage(contentQuery.get(), pageable, countQuery::execute);
+        }
+    }
+
+    // 검색 조건 값은 요청마다 달라지므로 크기 제한 + 만료 시 제거
+    private long cached(CountQuery countQuery) {
+        Cache<Object, Long> counts = cache.computeIfAbsent(countQuery.getDomainType(), type -> Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build());
+        Long cachedCount = counts.getIfPresent(countQuery.getKey());
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+        long count = countQuery.execute();
+        counts.put(countQuery.getKey(), count);
+        return count;
+    }
+
+    long cachedSize(Class<?> domainType) {
+        Cache<Object, Long> counts = cache.get(domainType);
+        if (counts == null) {
+            return 0;
+        }
+        counts.cleanUp();
+        return counts.estimatedSize();
+    }
+
+    private long estimate(String table) {
+        Number estimate = (Number) em.createNativeQuery(
+                        "select row_count_estimate from information_schema.tables where table_name = ?")
+                .setParameter(1, table.toUpperCase())
+                .getSingleResult();
+        return estimate.longValue();
+    }
+
+    private static long join(CompletableFuture<Long> total) {
+        try {
+            return total.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void evict(Class<?> domainType) {
+        Cache<Object, Long> counts = cache.get(domainType);
+        if (counts != null && counts.estimatedSize() > 0) {
+            counts.invalidateAll();
+        }
+    }
+
+    // 같은 트랜잭션 안의 이후 조회를 위해 즉시 무효화, 커밋 전에 다른 요청이 다시 캐시한 값은 커밋 후 한번 더 무효화
+    // 엔티티마다 발행되므로 커밋 후 무효화는 트랜잭션당 타입별 1번
+    @EventListener
+    public void onWrite(EntityWriteEvent event) {
+        evict(event.getDomainType());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            writtenTypes().add(event.getDomainType());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Class<?>> writtenTypes() {
+        Set<Class<?>> types = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+        if (types == null) {
+            Set<Class<?>> written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    written.forEach(PageCounter.this::evict);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PageCounter.this);
+                }
+            });
+            types = written;
+        }
+        return types;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        countExecutor.shutdown();
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.repository;
+
+/**
+ * open projection @Value SpEL의 root 객체 (#{target.xxx}, #{args[0]})
+ * 컴파일된 SpEL이 직접 호출할 수 있도록 public 클래스/메서드로 둔다.
+ */
+public final class ProjectionRoot {
+    private final Object target;
+    private final Object[] args;
+
+    public ProjectionRoot(Object target, Object[] args) {
+        this.target = target;
+        this.args = args;
+    }
+
+    public Object getTarget() {
+        return target;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동적 쿼리(Criteria)의 모양(조건 조합 + 정렬) 집계 :: 모양 수를 제한하지 않는다. (모든 모양은 그대로 실행)
+ * - 같은 모양은 같은 JPQL이 되도록 만든다. (조건 순서 고정, 값은 모두 파라미터) :: 모양 수 = 쿼리 플랜 캐시에 올라가는 쿼리 수
+ * - 모양 수의 실제 상한은 MemberSearchQuery :: 조건 조합, SORTABLE 속성만 허용 + 같은 속성/id 이후 정렬 제거
+ * - datajpa.query.max-shapes는 집계용 캐시 크기 (Caffeine, 넘으면 드물게 쓰는 모양부터 잊는다.)
+ * - repository.query.shape{query, result=hit|miss} :: miss = 처음 보거나 잊은 모양
+ *   hibernate 쿼리 플랜 캐시 hit/miss와는 다르다. (실제 값은 /actuator/jdbc queryPlanCache, hibernate.query.plan.cache)
+ */
+@Component
+public class QueryShapeRegistry {
+    private final int maxShapes;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, Shapes> queries = new ConcurrentHashMap<>();
+
+    public QueryShapeRegistry(@Value("${datajpa.query.max-shapes:64}") int maxShapes,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.maxShapes = maxShapes;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void register(String query, String shape) {
+        Shapes shapes = queries.computeIfAbsent(query, key -> new Shapes(maxShapes));
+        boolean hit = shapes.shapes.asMap().putIfAbsent(shape, Boolean.TRUE) != null;
+        (hit ? shapes.hits : shapes.misses).incrementAndGet();
+        Counter counter = hit ? shapes.hitCounter : shapes.missCounter;
+        if (counter == null) {
+            counter = counter(shapes, query, hit);
+        }
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    // 처음 기록할 때 만들어 재사용 :: registry가 같은 id면 같은 counter를 반환하므로 경합 시 중복 생성해도 무방
+    private Counter counter(Shapes shapes, String query, boolean hit) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return null;
+        }
+        Counter counter = Counter.builder("repository.query.shape")
+                .tag("query", query)
+                .tag("result", hit ? "hit" : "miss")
+                .register(registry);
+        if (hit) {
+            shapes.hitCounter = counter;
+        } else {
+            shapes.missCounter = counter;
+        }
+        return counter;
+    }
+
+    /** 쿼리 -> (모양 수, hit, miss) */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        queries.forEach((query, shapes) -> {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            shapes.shapes.cleanUp();
+            summary.put("shapes", shapes.shapes.estimatedSize());
+            summary.put("maxShapes", maxShapes);
+            summary.put("hits", shapes.hits.get());
+            summary.put("misses", shapes.misses.get());
+            snapshot.put(query, summary);
+        });
+        return snapshot;
+    }
+
+    private static class Shapes {
+        private final Cache<String, Boolean> shapes;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private volatile Counter hitCounter;
+        private volatile Counter missCounter;
+
+        private Shapes(int maxShapes) {
+            this.shapes = Caffeine.newBuilder().maximumSize(maxShapes).build();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import java.lang.annotation.*;
+
+/**
+ * 읽기 전용 조회 :: 리포지토리 메서드 또는 리포지토리 인터페이스 전체에 지정
+ * - 트랜잭션 밖에서 호출 :: 읽기 전용 트랜잭션으로 실행 (read-only 커넥션, flush 없음, 엔티티 스냅샷 없음)
+ * - 트랜잭션 안에서 호출 :: 조회된 엔티티만 read-only로 로딩 (스냅샷/변경 감지 제외), 트랜잭션은 그대로
+ * 인터페이스에 지정하면 쿼리 메서드(@Modifying 제외)를 트랜잭션 밖에서 호출할 때만 적용 (쓰기 트랜잭션 안의 조회는 그대로 변경 감지 대상)
+ * Stream 반환 메서드는 호출한 트랜잭션 안에서 소비해야 하므로 트랜잭션을 새로 열지 않는다.
+ * 읽기 전용 트랜잭션은 datasource 라우팅 시 replica로 간다. (DataSourceRoutingConfig)
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnlyQuery {
+}
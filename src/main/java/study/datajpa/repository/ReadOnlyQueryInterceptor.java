@@ -0,0 +1,117 @@
+package study.datajpa.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * @ReadOnlyQuery 처리 :: DataJpaRepositoryFactoryBean이 해당 리포지토리 프록시에만 추가
+ * 읽기 전용 트랜잭션이면 HibernateJpaDialect가 FlushMode.MANUAL, session.setDefaultReadOnly(true), connection.setReadOnly(true) 적용
+ */
+class ReadOnlyQueryInterceptor implements MethodInterceptor {
+    private final Class<?> repositoryInterface;
+    private final Set<Method> queryMethods;
+    private final EntityManager em;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final Map<Method, Scope> scopes = new ConcurrentHashMap<>();
+    private volatile TransactionTemplate readOnlyTx;
+
+    ReadOnlyQueryInterceptor(RepositoryInformation repositoryInformation, EntityManager em,
+                             ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.repositoryInterface = repositoryInformation.getRepositoryInterface();
+        this.queryMethods = repositoryInformation.getQueryMethods().toSet();
+        this.em = em;
+        this.transactionManager = transactionManager;
+    }
+
+    static boolean appliesTo(Class<?> repositoryInterface) {
+        if (AnnotatedElementUtils.hasAnnotation(repositoryInterface, ReadOnlyQuery.class)) {
+            return true;
+        }
+        for (Method method : repositoryInterface.getMethods()) {
+            if (AnnotatedElementUtils.hasAnnotation(method, ReadOnlyQuery.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Scope scope = scopes.computeIfAbsent(method, this::scope);
+        if (scope == Scope.NONE) {
+            return invocation.proceed();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return scope == Scope.METHOD && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    ? proceedReadOnly(invocation)
+                    : invocation.proceed();
+        }
+        if (Stream.class.isAssignableFrom(method.getReturnType())) {
+            return invocation.proceed();
+        }
+        return readOnlyTx().execute(status -> {
+            try {
+                return invocation.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    // 쓰기 트랜잭션 안 :: 이번 조회로 로딩되는 엔티티만 read-only (이미 영속 상태인 엔티티는 그대로)
+    private Object proceedReadOnly(MethodInvocation invocation) throws Throwable {
+        Session session = em.unwrap(Session.class);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+        session.setDefaultReadOnly(true);
+        try {
+            return invocation.proceed();
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
+    }
+
+    // 인터페이스에 지정하면 쿼리 메서드(@Modifying 제외)에만, 트랜잭션 밖에서 호출할 때만 적용
+    private Scope scope(Method method) {
+        if (AnnotatedElementUtils.hasAnnotation(method, ReadOnlyQuery.class)) {
+            return Scope.METHOD;
+        }
+        if (AnnotatedElementUtils.hasAnnotation(repositoryInterface, ReadOnlyQuery.class)
+                && queryMethods.contains(method)
+                && !AnnotatedElementUtils.hasAnnotation(method, Modifying.class)) {
+            return Scope.TYPE;
+        }
+        return Scope.NONE;
+    }
+
+    private enum Scope {
+        NONE, TYPE, METHOD
+    }
+
+    private TransactionTemplate readOnlyTx() {
+        TransactionTemplate template = readOnlyTx;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.getObject());
+            template.setReadOnly(true);
+            readOnlyTx = template;
+        }
+        return template;
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리포지토리 쓰기 메서드 실행 후 EntityWriteEvent 발행
+ * 벌크 연산(@Modifying)은 영속성 컨텍스트/엔티티 리스너를 거치지 않으므로 리포지토리 레벨에서 잡는다.
+ * save/delete는 flush 전에도 같은 트랜잭션의 조회에 반영되도록 즉시 발행 (flush된 변경은 EntityWriteListener)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryWriteAspect {
+
+    private final ApplicationEventPublisher publisher;
+
+    @AfterReturning("this(org.springframework.data.repository.Repository) && " +
+            "(execution(* save*(..)) || execution(* delete*(..)) || " +
+            "@annotation(org.springframework.data.jpa.repository.Modifying))")
+    public void afterWrite(JoinPoint joinPoint) {
+        for (Class<?> repositoryInterface : AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis())) {
+            if (Repository.class.isAssignableFrom(repositoryInterface) && repositoryInterface != Repository.class) {
+                Class<?> domainType = AbstractRepositoryMetadata.getMetadata(repositoryInterface).getDomainType();
+                publisher.publishEvent(new EntityWriteEvent(domainType));
+                return;
+            }
+        }
+    }
+}
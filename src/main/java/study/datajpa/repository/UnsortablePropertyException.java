@@ -0,0 +1,11 @@
+package study.datajpa.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsortablePropertyException extends RuntimeException {
+    public UnsortablePropertyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,148 @@
+package study.datajpa.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary, replica 각각 별도 H2 메모리 DB :: 복제는 하지 않으므로 어느 쪽에서 읽었는지 데이터로 구분
+ * replica-1은 존재하지 않는 DB (IFEXISTS) :: health check에서 제외되어야 한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.routing.enabled=true",
+        "datajpa.datasource.routing.replicas[0].url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.routing.replicas[0].username=sa",
+        "datajpa.datasource.routing.replicas[1].url=jdbc:h2:mem:routing_down;IFEXISTS=TRUE",
+        "datajpa.datasource.routing.replicas[1].username=sa",
+        "datajpa.datasource.routing.replica-connection-timeout=1s",
+        "datajpa.datasource.routing.read-your-writes-window=1h",
+        //JCache 캐시 매니저는 JVM 공유 :: 다른 테스트 컨텍스트의 2차/쿼리 캐시와 섞이지 않도록 끈다.
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class DataSourceRoutingTest {
+    @Autowired MemberRepository memberRepository;
+    @Autowired DataSource dataSource;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setUp() {
+        primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing_primary", "sa", ""));
+        replica = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing_replica", "sa", ""));
+        //replica 스키마는 primary에서 복사
+        replica.execute("drop all objects");
+        primary.queryForList("script nodata", String.class).forEach(replica::execute);
+        replica.update("insert into member (member_id, username, age) values (1, 'replicaMember', 10)");
+        ReadYourWrites.clear();
+        //replica 풀은 백그라운드로 첫 커넥션을 만든다 :: 기동 시점 health check 결과에 의존하지 않도록 직접 검사
+        routingDataSource().checkHealth();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        primary.update("delete from member");
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    public void readOnlyQueriesGoToHealthyReplica() {
+        primary.update("insert into member (member_id, username, age) values (1, 'primaryMember', 10)");
+
+        assertThat(routingDataSource().getHealthyReplicas()).containsExactly("replica-0");
+        assertThat(memberRepository.findByUsername("replicaMember")).hasSize(1);
+        assertThat(memberRepository.findByUsername("primaryMember")).isEmpty();
+        assertThat(memberRepository.findAll()).extracting(Member::getUsername).containsExactly("replicaMember");
+        //replica 풀 메트릭
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "replica-0").timer().count()).isPositive();
+    }
+
+    @Test
+    public void readYourWrites() {
+        memberRepository.save(new Member("written", 20));//primary 쓰기 트랜잭션 커밋
+
+        //window 안 :: primary에서 조회
+        assertThat(memberRepository.findByUsername("written")).hasSize(1);
+
+        ReadYourWrites.clear();
+        assertThat(memberRepository.findByUsername("written")).isEmpty();
+    }
+
+    @Test
+    public void writeAfterReadOnlyInOpenInViewGoesToPrimary() {
+        //open-in-view :: 요청 동안 EntityManager 1개를 여러 트랜잭션이 공유
+        EntityManager em = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            List<Member> read = readOnly.execute(status -> memberRepository.findByUsername("replicaMember"));
+            assertThat(read).hasSize(1);
+
+            transactionTemplate.executeWithoutResult(status -> memberRepository.save(new Member("osivWrite", 30)));
+
+            //쓰기 커밋 후 :: read-your-writes로 primary에서 조회
+            List<Member> written = readOnly.execute(status -> memberRepository.findByUsername("osivWrite"));
+            assertThat(written).hasSize(1);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            em.close();
+        }
+
+        assertThat(primary.queryForObject("select count(*) from member where username = 'osivWrite'", Long.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from member where username = 'osivWrite'", Long.class)).isZero();
+    }
+
+    @Test
+    public void unhealthyReplicaIsRecheckedBeforeInterval() throws InterruptedException {
+        DataSource late = new DriverManagerDataSource("jdbc:h2:mem:routing_late;IFEXISTS=TRUE", "sa", "");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new DriverManagerDataSource("jdbc:h2:mem:routing_primary", "sa", ""),
+                Collections.singletonMap("late", late), Duration.ZERO, Duration.ofHours(1));
+        try {
+            assertThat(routing.getHealthyReplicas()).isEmpty();
+
+            //기동 후 replica가 살아나면 health-check-interval(1h)을 기다리지 않고 포함
+            new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing_late;DB_CLOSE_DELAY=-1", "sa", "")).execute("select 1");
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (routing.getHealthyReplicas().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(routing.getHealthyReplicas()).containsExactly("late");
+        } finally {
+            routing.close();
+        }
+    }
+
+    private ReplicaRoutingDataSource routingDataSource() {
+        try {
+            return dataSource.unwrap(ReplicaRoutingDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
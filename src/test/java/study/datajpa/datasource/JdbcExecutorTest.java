@@ -0,0 +1,73 @@
+package study.datajpa.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.monitor.SqlStatementScope;
+import study.datajpa.monitor.SqlStatements;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class JdbcExecutorTest {
+    @Autowired JdbcExecutor jdbcExecutor;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void rejectWhenQueueIsFull() throws InterruptedException {
+        JdbcExecutor executor = new JdbcExecutor(true, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> running = executor.submit(() -> await(release));
+            CompletableFuture<Integer> queued = executor.submit(() -> 2);
+
+            //스레드 1개는 실행 중, 대기열 1칸도 찼으므로 거절
+            assertThatThrownBy(() -> executor.submit(() -> 3)).isInstanceOf(JdbcExecutorBusyException.class);
+
+            release.countDown();
+            assertThat(running.join()).isEqualTo(1);
+            assertThat(queued.join()).isEqualTo(2);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void propagateSqlStatementScope() {
+        try (SqlStatementScope scope = SqlStatements.capture("request")) {
+            String thread = jdbcExecutor.submit(() -> {
+                memberRepository.findMemberByUsername("asyncMember");
+                return Thread.currentThread().getName();
+            }).join();
+
+            //작업 스레드에서 실행한 SQL도 요청 스레드의 구간에 기록
+            assertThat(thread).startsWith("jdbc-");
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void blockingMode() {
+        JdbcExecutor executor = new JdbcExecutor(false, 1, 1);
+        try {
+            assertThat(executor.submit(() -> Thread.currentThread().getName()).join()).isEqualTo(Thread.currentThread().getName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,148 @@
+package study.datajpa.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 커밋 충돌을 확인하므로 트랜잭션 없이 실행 (다른 테스트 데이터와 겹치지 않도록 age 9000 사용)
+ */
+@SpringBootTest
+class RetryingTransactionExecutorTest {
+    private static final int AGE = 9000;
+
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManager em;
+
+    private RetryingTransactionExecutor executor;
+    private Member member;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new RetryingTransactionExecutor(transactionManager, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+        member = memberRepository.save(new Member("retryMember", AGE));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteInBatch(List.of(member));
+    }
+
+    @Test
+    public void versionConflict() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Member stale = memberRepository.findById(member.getId()).get();
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, member.getId()).setAge(AGE + 1));
+
+        //먼저 읽은 version으로 update :: 다른 트랜잭션이 먼저 바꿨으므로 충돌
+        stale.setAge(AGE + 2);
+        assertThatThrownBy(() -> memberRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(AGE + 1);
+    }
+
+    @Test
+    public void retryOnConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+        Integer age = executor.execute(status -> {
+            Member found = em.find(Member.class, member.getId());
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Member.class, member.getId());
+            }
+            found.setAge(found.getAge() + 1);
+            return found.getAge();
+        });
+
+        assertThat(attempts).hasValue(3);
+        assertThat(age).isEqualTo(AGE + 1);
+    }
+
+    @Test
+    public void rethrowWhenExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThatThrownBy(() -> executor.execute(status -> {
+            attempts.incrementAndGet();
+            em.find(Member.class, member.getId()).setAge(0);
+            throw new ObjectOptimisticLockingFailureException(Member.class, member.getId());
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        //max-attempts번 시도, 모두 롤백
+        assertThat(attempts).hasValue(3);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(AGE);
+    }
+
+    @Test
+    public void doNotRetryOtherExceptions() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThatThrownBy(() -> executor.execute(status -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not a conflict");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    public void rejectInsideTransaction() {
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> executor.execute(s -> null)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void backoffCeilingSaturates() {
+        //9초 << 30은 long 범위를 넘음 :: maxBackoff로 고정되어야 함
+        RetryingTransactionExecutor slow = new RetryingTransactionExecutor(transactionManager, 100, Duration.ofSeconds(9), Duration.ofMinutes(1));
+        assertThat(slow.backoffCeiling(1)).isEqualTo(Duration.ofSeconds(9).toNanos());
+        assertThat(slow.backoffCeiling(3)).isEqualTo(Duration.ofSeconds(36).toNanos());
+        assertThat(slow.backoffCeiling(31)).isEqualTo(Duration.ofMinutes(1).toNanos());
+        assertThat(slow.backoffCeiling(100)).isEqualTo(Duration.ofMinutes(1).toNanos());
+
+        assertThatThrownBy(() -> new RetryingTransactionExecutor(transactionManager, 3, Duration.ofSeconds(1), Duration.ofMillis(5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void noLostUpdates() {
+        RetryingTransactionExecutor retrying = new RetryingTransactionExecutor(transactionManager, 100, Duration.ofMillis(1), Duration.ofMillis(20));
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Void>> increments = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                increments.add(CompletableFuture.runAsync(() -> retrying.execute(status -> {
+                    Member found = em.find(Member.class, member.getId());
+                    found.setAge(found.getAge() + 1);
+                    return null;
+                }), threads));
+            }
+            CompletableFuture.allOf(increments.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            threads.shutdown();
+        }
+
+        //동시에 읽은 값으로 덮어쓰지 않고 충돌한 트랜잭션은 다시 읽어서 증가
+        Member updated = memberRepository.findById(member.getId()).get();
+        assertThat(updated.getAge()).isEqualTo(AGE + 40);
+        assertThat(updated.getVersion()).isEqualTo(member.getVersion() + 40);
+    }
+}
@@ -0,0 +1,98 @@
+package study.datajpa.entity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 트랜잭션 단위 감사 정보는 커밋된 데이터로 확인 (다른 테스트 데이터와 겹치지 않도록 age 7000 사용)
+ */
+@SpringBootTest
+class AuditStampTest {
+    private static final int AGE = 7000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired ItemRepository itemRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private final List<Member> members = new ArrayList<>();
+    private final List<Team> teams = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteInBatch(members);
+        teamRepository.deleteInBatch(teams);
+    }
+
+    @Test
+    public void sameStampInTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = teamRepository.save(new Team("auditTeam"));
+            teams.add(team);
+            members.addAll(memberRepository.saveAll(Arrays.asList(new Member("auditA", AGE, team), new Member("auditB", AGE, team))));
+        });
+
+        //트랜잭션 안에서 저장한 엔티티는 같은 감사 정보
+        assertThat(members).extracting(Member::getCreatedDate).containsOnly(teams.get(0).getCreatedDate());
+        assertThat(members).extracting(Member::getLastModifedDate).containsOnly(teams.get(0).getCreatedDate());
+        assertThat(members).extracting(Member::getCreatedBy).containsOnly("session Login Id");
+    }
+
+    @Test
+    public void upsertUsesTransactionStamp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            members.add(memberRepository.save(new Member("auditUpsert", AGE)));
+            itemRepository.upsertAll(Arrays.asList(new Item("auditItemA"), new Item("auditItemB")));
+        });
+
+        //엔티티 리스너를 거치지 않는 upsert도 트랜잭션의 감사 시각 사용
+        List<Item> items = itemRepository.findAllById(Arrays.asList("auditItemA", "auditItemB"));
+        itemRepository.deleteInBatch(items);
+        LocalDateTime stamp = members.get(0).getCreatedDate();
+        assertThat(items).extracting(Item::getCreateDate)
+                .allSatisfy(createDate -> assertThat(createDate).isCloseTo(stamp, within(1, ChronoUnit.MICROS)));//DB timestamp 정밀도 (마이크로초 반올림)
+    }
+
+    @Test
+    public void stampModifiedInNextTransaction() {
+        Member member = memberRepository.save(new Member("auditMember", AGE));
+        members.add(member);
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(member.getId()).get().setUsername("auditModified"));
+
+        Member modified = memberRepository.findById(member.getId()).get();
+        assertThat(modified.getCreatedDate()).isEqualTo(member.getCreatedDate());
+        assertThat(modified.getLastModifedDate()).isAfter(member.getCreatedDate());
+        assertThat(modified.getLastModifiedBy()).isEqualTo("session Login Id");
+    }
+
+    @Test
+    public void bulkUpdateStampsAuditColumns() {
+        Member member = memberRepository.save(new Member("auditBulk", AGE));
+        members.add(member);
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkUpdate(AGE));
+
+        //엔티티 리스너를 거치지 않는 벌크 update도 감사 컬럼 변경
+        Member updated = memberRepository.findById(member.getId()).get();
+        assertThat(updated.getAge()).isEqualTo(AGE + 1);
+        assertThat(updated.getLastModifedDate()).isAfter(member.getLastModifedDate());
+        assertThat(updated.getLastModifiedBy()).isEqualTo("session Login Id");
+        assertThat(updated.getVersion()).isEqualTo(member.getVersion() + 1);
+    }
+}
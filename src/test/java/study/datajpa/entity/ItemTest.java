@@ -1,10 +1,19 @@
 package study.datajpa.entity;
 
+import org.hibernate.annotations.QueryHints;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.UpsertResult;
 
+import javax.persistence.EntityManager;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -12,10 +21,69 @@ class ItemTest {
 
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager em;
 
     @Test
     public void testPersstable(){
         Item item = new Item("itemA");
         itemRepository.save(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void upsertAll(){
+        itemRepository.save(new Item("upsertA"));
+        Item saved = itemRepository.findById("upsertA").get();
+
+        UpsertResult result = itemRepository.upsertAll(Arrays.asList(new Item("upsertA"), new Item("upsertB"), new Item("upsertC")));
+
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(itemRepository.findById("upsertA").get().getCreateDate()).isEqualTo(saved.getCreateDate());
+        assertThat(itemRepository.findById("upsertC").get().getCreateDate()).isNotNull();
+    }
+
+    @Test
+    public void upsertAllKeepsExistingRows(){
+        itemRepository.upsertAll(Arrays.asList(new Item("upsertD"), new Item("upsertE")));
+        Item saved = itemRepository.findById("upsertD").get();
+
+        //이미 있는 row는 insert하지 않음 (createDate 유지), 건수는 update count 기준
+        UpsertResult result = itemRepository.upsertAll(Arrays.asList(new Item("upsertD"), new Item("upsertE"), new Item("upsertD")));
+
+        assertThat(result.getInserted()).isEqualTo(0);
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(itemRepository.findById("upsertD").get().getCreateDate()).isEqualTo(saved.getCreateDate());
+    }
+
+    @Test
+    public void upsertAllStampsInsertedItems(){
+        itemRepository.save(new Item("upsertF"));
+        Item existing = new Item("upsertF");
+        Item inserted = new Item("upsertG");
+
+        itemRepository.upsertAll(Arrays.asList(existing, inserted));
+
+        //새로 insert한 객체만 createDate 채움, 기존 row는 조회하지 않으므로 그대로
+        assertThat(inserted.getCreateDate()).isCloseTo(itemRepository.findById("upsertG").get().getCreateDate(), within(1, ChronoUnit.MICROS));
+        assertThat(inserted.isNew()).isFalse();
+        assertThat(existing.getCreateDate()).isNull();
+    }
+
+    @Test
+    public void upsertAllInvalidatesQueryCache(){
+        long count = cachedCount();
+        assertThat(cachedCount()).isEqualTo(count);
+
+        itemRepository.upsertAll(Collections.singletonList(new Item("upsertH")));
+
+        //JDBC로 insert해도 item 테이블 쿼리 캐시 결과는 무효화
+        assertThat(cachedCount()).isEqualTo(count + 1);
+    }
+
+    private long cachedCount() {
+        return em.createQuery("select count(i) from Item i", Long.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,155 @@
+package study.datajpa.monitor;
+
+import com.p6spy.engine.spy.P6DataSource;
+import com.p6spy.engine.wrapper.ConnectionWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.MemberRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class JdbcMonitorTest {
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcEndpoint jdbcEndpoint;
+    @Autowired JdbcMonitorProperties properties;
+    @Autowired StatementCacheMetrics statementCacheMetrics;
+    @Autowired MeterRegistry meterRegistry;
+
+    private Duration slowQueryThreshold;
+
+    @BeforeEach
+    public void setUp() {
+        slowQueryThreshold = properties.getSlowQueryThreshold();
+        jdbcEndpoint.clearSlowQueries();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        properties.setSlowQueryThreshold(slowQueryThreshold);
+        jdbcEndpoint.clearSlowQueries();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void slowQueriesPerRepositoryMethod() {
+        properties.setSlowQueryThreshold(Duration.ZERO);//모든 SQL을 slow query로
+
+        memberRepository.findMemberByUsername("slowMember");
+
+        Map<String, Object> slowQueries = (Map<String, Object>) jdbcEndpoint.jdbc().get("slowQueries");
+        Map<String, Map<String, Object>> byMethod = (Map<String, Map<String, Object>>) slowQueries.get("byMethod");
+        assertThat(byMethod).containsKey("MemberRepository.findMemberByUsername");
+        assertThat(byMethod.get("MemberRepository.findMemberByUsername").get("count")).isEqualTo(1L);
+        List<SlowQueryLog.SlowQuery> recent = (List<SlowQueryLog.SlowQuery>) byMethod.get("MemberRepository.findMemberByUsername").get("recent");
+        assertThat(recent).extracting(SlowQueryLog.SlowQuery::getSql).allMatch(sql -> sql.contains("'slowMember'"));
+        assertThat(meterRegistry.get("repository.sql.slow").tag("method", "MemberRepository.findMemberByUsername").counter().count()).isPositive();
+    }
+
+    @Test
+    public void repositoryMetricsPerMethod() {
+        memberRepository.findMemberByUsername("metricMember");
+        Timer invocations = meterRegistry.get("repository.invocations").tag("method", "MemberRepository.findMemberByUsername").timer();
+        long count = invocations.count();
+
+        memberRepository.findMemberByUsername("metricMember");
+
+        assertThat(invocations.count()).isEqualTo(count + 1);
+        assertThat(meterRegistry.get("repository.sql.statements").tag("method", "MemberRepository.findMemberByUsername").summary().totalAmount())
+                .isPositive();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void queryPlanCacheWithShapes() {
+        memberRepository.search(new MemberSearchCondition(), PageRequest.of(0, 1), CountMode.EXACT);
+
+        //모양 hit/miss와 별개로 hibernate 플랜 캐시 hit/miss
+        Map<String, Object> queryPlanCache = (Map<String, Object>) jdbcEndpoint.jdbc().get("queryPlanCache");
+        assertThat((long) queryPlanCache.get("hits") + (long) queryPlanCache.get("misses")).isPositive();
+        assertThat(queryPlanCache).containsKey("hitRatio");
+        assertThat((Map<String, Object>) queryPlanCache.get("shapes")).containsKey("Member.search");
+    }
+
+    @Test
+    public void statementCacheHit() {
+        memberRepository.findMemberByUsername("cachedStatement");
+        long hits = statementCacheMetrics.getHits();
+
+        memberRepository.findMemberByUsername("cachedStatement");
+
+        //같은 스레드는 풀에서 같은 물리 커넥션을 다시 받는다 -> 같은 SQL은 hit
+        assertThat(statementCacheMetrics.getHits()).isGreaterThan(hits);
+    }
+
+    @Test
+    public void statementCacheSkippedUntilBound() throws SQLException {
+        StatementCacheMetrics metrics = new StatementCacheMetrics(properties);
+        try (Connection connection = new DriverManagerDataSource("jdbc:h2:mem:statement_cache", "sa", "").getConnection()) {
+            metrics.record(connection, "select 1");
+            assertThat(metrics.getMisses()).isZero();
+
+            metrics.bindTo(new SimpleMeterRegistry());
+            metrics.record(connection, "select 1");
+            metrics.record(connection, "select 1");
+
+            assertThat(metrics.getMisses()).isEqualTo(1);
+            assertThat(metrics.getHits()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void poolMetrics() {
+        memberRepository.findMemberByUsername("poolMember");
+
+        Map<String, Map<String, Object>> pools = (Map<String, Map<String, Object>>) jdbcEndpoint.jdbc().get("pools");
+        assertThat(pools).containsKey("primary");
+        Map<String, Object> acquire = (Map<String, Object>) pools.get("primary").get("acquire");
+        assertThat((long) acquire.get("count")).isPositive();
+        assertThat(acquire).containsKeys("p50Millis", "p95Millis", "p99Millis");
+        assertThat(pools.get("primary").get("max")).isEqualTo(10.0);
+    }
+
+    @Test
+    public void p6spySampling() throws SQLException {
+        DataSource raw = new DriverManagerDataSource("jdbc:h2:mem:datajpa", "sa", "");
+        JdbcMonitorProperties sampling = new JdbcMonitorProperties();
+        DataSource dataSource = new P6SpySamplingDecorator(sampling).decorate("dataSource", new P6DataSource(raw));
+
+        sampling.setP6spySampleRate(0);
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection).isNotInstanceOf(ConnectionWrapper.class);
+        }
+        //SQL을 빠짐없이 봐야 하는 구간에서는 샘플링하지 않는다.
+        try (SqlStatementScope scope = SqlStatements.capture("test")) {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                assertThat(connection).isInstanceOf(ConnectionWrapper.class);
+                statement.execute("select 1");
+            }
+            assertThat(scope.getStatements()).containsExactly("select 1");
+        }
+        sampling.setP6spySampleRate(1);
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection).isInstanceOf(ConnectionWrapper.class);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테스트용 SQL 실행 수 검증
+ * <pre>
+ * SqlStatementScope scope = SqlStatementAssertions.record(() -> memberRepository.findAll());
+ * SqlStatementAssertions.assertStatementCount(1, () -> memberRepository.findAll());
+ * </pre>
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    /** action 실행 중 SQL 기록 (두 번 이상 실행된 SQL은 getRepeatedShapes()로 확인) */
+    public static SqlStatementScope record(Runnable action) {
+        try (SqlStatementScope scope = SqlStatements.open("test", Integer.MAX_VALUE, 1, SqlBudgetMode.WARN)) {
+            action.run();
+            return scope;
+        }
+    }
+
+    public static void assertStatementCount(int expected, Runnable action) {
+        SqlStatementScope scope = record(action);
+        assertThat(scope.getCount()).as("SQL 실행 수\n%s", scope.getShapes()).isEqualTo(expected);
+    }
+
+    /** 같은 모양의 SQL이 두 번 이상 실행되면 실패 */
+    public static void assertNoRepeatedStatements(Runnable action) {
+        SqlStatementScope scope = record(action);
+        assertThat(scope.getRepeatedShapes()).as("N+1 의심").isEmpty();
+    }
+}
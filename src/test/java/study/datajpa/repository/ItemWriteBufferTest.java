@@ -0,0 +1,229 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Item;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ItemWriteBufferTest {
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    @Autowired ItemRepository itemRepository;
+    @Autowired ItemWriteBuffer itemWriteBuffer;
+
+    @Test
+    public void acknowledged() {
+        itemWriteBuffer.write(new Item("bufferA"), ItemWriteMode.ACKNOWLEDGED);
+
+        //batch가 커밋된 뒤 반환
+        assertThat(itemRepository.findById("bufferA")).isPresent();
+        assertThat(itemRepository.findById("bufferA").get().getCreateDate()).isNotNull();
+    }
+
+    @Test
+    public void flushWhenBatchIsFull() throws InterruptedException {
+        CollectingWriter writer = new CollectingWriter();
+        ItemWriteBuffer buffer = new ItemWriteBuffer(writer, 16, 5, NEVER, NEVER, NEVER, ItemWriteMode.ASYNC);
+        try {
+            for (int i = 0; i < 4; i++) {
+                buffer.write(new Item("batch" + i));
+            }
+            //flush-interval 전이라도 batch-size개가 모이면 저장
+            buffer.write(new Item("batch4"), ItemWriteMode.ACKNOWLEDGED);
+
+            assertThat(writer.batches).hasSize(1);
+            assertThat(writer.batches.peek()).extracting(Item::getId).containsExactly("batch0", "batch1", "batch2", "batch3", "batch4");
+        } finally {
+            buffer.close();
+        }
+    }
+
+    @Test
+    public void rejectWhenFull() throws InterruptedException {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingWriter writer = new CollectingWriter() {
+            @Override
+            public UpsertResult upsertAll(Collection<Item> items) {
+                flushing.countDown();
+                await(release);
+                return super.upsertAll(items);
+            }
+        };
+        ItemWriteBuffer buffer = new ItemWriteBuffer(writer, 4, 1, Duration.ZERO, Duration.ofMillis(50), NEVER, ItemWriteMode.ASYNC);
+        try {
+            buffer.write(new Item("full0"));
+            flushing.await();
+            for (int i = 1; i <= 4; i++) {
+                buffer.write(new Item("full" + i));
+            }
+
+            //flusher가 저장 중이고 버퍼 4칸도 찼으므로 offer-timeout 후 거절
+            assertThatThrownBy(() -> buffer.write(new Item("full5"))).isInstanceOf(ItemBufferFullException.class);
+        } finally {
+            release.countDown();
+            buffer.close();
+        }
+        assertThat(writer.ids()).containsExactly("full0", "full1", "full2", "full3", "full4");
+    }
+
+    @Test
+    public void drainOnClose() throws InterruptedException {
+        CollectingWriter writer = new CollectingWriter();
+        ItemWriteBuffer buffer = new ItemWriteBuffer(writer, 64, 100, NEVER, NEVER, NEVER, ItemWriteMode.ASYNC);
+        for (int i = 0; i < 10; i++) {
+            buffer.write(new Item("close" + i));
+        }
+
+        buffer.close();
+
+        assertThat(writer.ids()).hasSize(10);
+        assertThatThrownBy(() -> buffer.write(new Item("closed"))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void acknowledgedFailure() throws InterruptedException {
+        ItemWriteBuffer buffer = new ItemWriteBuffer(items -> {
+            throw new IllegalStateException("flush failed");
+        }, 16, 1, Duration.ZERO, NEVER, NEVER, ItemWriteMode.ACKNOWLEDGED);
+        try {
+            assertThatThrownBy(() -> buffer.write(new Item("fail"))).isInstanceOf(IllegalStateException.class).hasMessage("flush failed");
+        } finally {
+            buffer.close();
+        }
+    }
+
+    @Test
+    public void acknowledgedError() throws InterruptedException {
+        ItemWriteBuffer buffer = new ItemWriteBuffer(items -> {
+            throw new StackOverflowError("flush error");
+        }, 16, 1, Duration.ZERO, NEVER, NEVER, ItemWriteMode.ACKNOWLEDGED);
+        try {
+            //Error도 대기 중인 write에 전달 (무한 대기 X), flusher는 계속 실행
+            assertThatThrownBy(() -> buffer.write(new Item("error0"))).isInstanceOf(StackOverflowError.class);
+            assertThatThrownBy(() -> buffer.write(new Item("error1"))).isInstanceOf(StackOverflowError.class);
+        } finally {
+            buffer.close();
+        }
+    }
+
+    @Test
+    public void acknowledgedTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingWriter writer = new CollectingWriter() {
+            @Override
+            public UpsertResult upsertAll(Collection<Item> items) {
+                await(release);
+                return super.upsertAll(items);
+            }
+        };
+        ItemWriteBuffer buffer = new ItemWriteBuffer(writer, 16, 1, Duration.ZERO, NEVER, Duration.ofMillis(50), ItemWriteMode.ACKNOWLEDGED);
+        try {
+            assertThatThrownBy(() -> buffer.write(new Item("slow"))).isInstanceOf(IllegalStateException.class);
+        } finally {
+            release.countDown();
+            buffer.close();
+        }
+    }
+
+    @Test
+    public void writeRacingClose() throws Exception {
+        ExecutorService producers = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 200; i++) {
+                CollectingWriter writer = new CollectingWriter();
+                ItemWriteBuffer buffer = new ItemWriteBuffer(writer, 16, 1, Duration.ZERO, NEVER, Duration.ofSeconds(5), ItemWriteMode.ACKNOWLEDGED);
+                String id = "race" + i;
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<Boolean> written = producers.submit(() -> {
+                    start.await();
+                    try {
+                        buffer.write(new Item(id));
+                        return true;
+                    } catch (IllegalStateException e) {
+                        assertThat(e).hasMessageContaining("종료되었습니다");//종료 후 거절 (응답 대기 시간 초과 X)
+                        return false;
+                    }
+                });
+                start.await();
+                buffer.close();
+
+                //close와 겹쳐도 유실되거나 응답 대기 시간 초과 없이 저장 또는 거절
+                if (written.get()) {
+                    assertThat(writer.ids()).containsExactly(id);
+                } else {
+                    assertThat(writer.ids()).isEmpty();
+                }
+            }
+        } finally {
+            producers.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentProducers() throws InterruptedException {
+        CollectingWriter writer = new CollectingWriter();
+        ItemWriteBuffer buffer = new ItemWriteBuffer(writer, 64, 32, Duration.ofMillis(1), Duration.ofSeconds(10), NEVER, ItemWriteMode.ASYNC);
+        ExecutorService producers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < 8; p++) {
+                String prefix = "producer" + p + "-";
+                futures.add(producers.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        buffer.write(new Item(prefix + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            producers.shutdown();
+            buffer.close();
+        }
+
+        //유실, 중복 없이 생산자별 순서 유지
+        List<String> ids = writer.ids();
+        assertThat(ids).hasSize(8000).doesNotHaveDuplicates();
+        List<String> producer0 = ids.stream().filter(id -> id.startsWith("producer0-")).collect(Collectors.toList());
+        assertThat(producer0).extracting(id -> Integer.parseInt(id.substring("producer0-".length()))).isSorted();
+        assertThat(writer.batches).allMatch(batch -> batch.size() <= 32);
+    }
+
+    private static class CollectingWriter implements ItemRepositoryCustom {
+        final Queue<List<Item>> batches = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public UpsertResult upsertAll(Collection<Item> items) {
+            batches.add(new ArrayList<>(items));
+            return new UpsertResult(items.size(), 0);
+        }
+
+        List<String> ids() {
+            return batches.stream().flatMap(List::stream).map(Item::getId).collect(Collectors.toList());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
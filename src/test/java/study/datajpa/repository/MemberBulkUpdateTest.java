@@ -0,0 +1,145 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * chunk 트랜잭션은 커밋된 데이터만 보이므로 커밋 후 확인 (다른 테스트 데이터와 겹치지 않도록 age 5000 이상 사용)
+ */
+@SpringBootTest
+class MemberBulkUpdateTest {
+    private static final int AGE = 5000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired ChunkedBulkUpdater bulkUpdater;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManager em;
+
+    private List<Member> members;
+
+    @BeforeEach
+    public void setUp() {
+        members = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            members.add(new Member("bulkMember" + i, AGE));
+        }
+        members = memberRepository.saveAll(members);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        //벌크 update로 version이 바뀐 detached 엔티티라 merge 없이 삭제
+        memberRepository.deleteInBatch(members);
+    }
+
+    @Test
+    public void updateInChunks() {
+        List<BulkUpdateChunk> progress = Collections.synchronizedList(new ArrayList<>());
+
+        BulkUpdateResult result = bulkUpdater.execute(ageUpdate(), Collections.emptySet(), progress::add);
+
+        assertThat(result.getUpdatedRows()).isEqualTo(50);
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(progress).hasSize(result.getTotalChunks());
+        assertThat(progress.stream().mapToInt(BulkUpdateChunk::getUpdatedRows).sum()).isEqualTo(50);
+        assertThat(ages()).containsOnly(AGE + 1);
+    }
+
+    @Test
+    public void updateAuditColumns() {
+        bulkUpdater.execute(ageUpdate(), Collections.emptySet(), BulkUpdateListener.NONE);
+
+        //모든 chunk가 같은 감사 정보로 update
+        List<Member> updated = memberRepository.findAllById(members.stream().map(Member::getId).collect(Collectors.toList()));
+        assertThat(updated).extracting(Member::getLastModifedDate).containsOnly(updated.get(0).getLastModifedDate());
+        assertThat(updated.get(0).getLastModifedDate()).isAfter(members.get(0).getLastModifedDate());
+        assertThat(updated).extracting(Member::getLastModifiedBy).containsOnly("session Login Id");
+        //version도 증가 :: 벌크 update 전에 읽은 엔티티는 낙관적 락 충돌
+        assertThat(updated).extracting(Member::getVersion).containsOnly(members.get(0).getVersion() + 1);
+    }
+
+    @Test
+    public void resumeAfterFailure() {
+        //chunk 수가 스레드 수보다 충분히 많아야 실패 시점에 시작하지 않은 chunk가 남는다.
+        BulkUpdate update = ageUpdate().withChunkSize(1);
+        AtomicInteger calls = new AtomicInteger();
+        BulkUpdateException exception = catchThrowableOfType(() -> bulkUpdater.execute(update, Collections.emptySet(), chunk -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("stop");
+            }
+        }), BulkUpdateException.class);
+
+        //실패 전까지 커밋된 chunk를 넘기면 나머지만 실행 :: 모든 row가 정확히 1번 update
+        BulkUpdateResult resumed = bulkUpdater.execute(update, exception.getResult().getCompletedChunks(), BulkUpdateListener.NONE);
+
+        assertThat(exception.getResult().isCompleted()).isFalse();
+        assertThat(resumed.isCompleted()).isTrue();
+        assertThat(exception.getResult().getUpdatedRows() + resumed.getUpdatedRows()).isEqualTo(50);
+        assertThat(ages()).containsOnly(AGE + 1);
+    }
+
+    @Test
+    public void listenerFailureKeepsCommittedChunk() {
+        BulkUpdate update = ageUpdate().withChunkSize(1);
+        Set<Long> failedChunks = Collections.synchronizedSet(new HashSet<>());
+        AtomicInteger failedRows = new AtomicInteger();
+        BulkUpdateException exception = catchThrowableOfType(() -> bulkUpdater.execute(update, Collections.emptySet(), chunk -> {
+            failedChunks.add(chunk.getFromId());
+            failedRows.addAndGet(chunk.getUpdatedRows());
+            throw new IllegalStateException("listener");
+        }), BulkUpdateException.class);
+
+        //listener가 실패한 chunk도 커밋되었으므로 완료 목록에 포함 :: 재실행해도 age + 1을 다시 적용하지 않는다.
+        assertThat(exception.getResult().getCompletedChunks()).containsAll(failedChunks);
+        assertThat(failedChunks).isNotEmpty();
+        assertThat(exception.getResult().getUpdatedRows()).isEqualTo(failedRows.get());
+
+        BulkUpdateResult resumed = bulkUpdater.execute(update, exception.getResult().getCompletedChunks(), BulkUpdateListener.NONE);
+
+        assertThat(resumed.isCompleted()).isTrue();
+        assertThat(exception.getResult().getUpdatedRows() + resumed.getUpdatedRows()).isEqualTo(50);
+        assertThat(ages()).containsOnly(AGE + 1);
+    }
+
+    @Test
+    public void detachOnlyAffectedEntities() {
+        Member other = memberRepository.save(new Member("bulkOther", 1));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Member affected = memberRepository.findById(members.get(0).getId()).get();
+                Member unaffected = memberRepository.findById(other.getId()).get();
+
+                memberRepository.bulkUpdateInChunks(AGE, Collections.emptySet(), BulkUpdateListener.NONE);
+
+                assertThat(em.contains(affected)).isFalse();
+                assertThat(em.contains(unaffected)).isTrue();
+                assertThat(memberRepository.findById(affected.getId()).get().getAge()).isEqualTo(AGE + 1);
+            });
+        } finally {
+            memberRepository.delete(other);
+        }
+    }
+
+    private BulkUpdate ageUpdate() {
+        return BulkUpdate.of(Member.class, "member", "member_id", "age = age + 1", "age >= :age",
+                Collections.singletonMap("age", AGE)).withChunkSize(10);
+    }
+
+    private Set<Integer> ages() {
+        List<Long> ids = members.stream().map(Member::getId).collect(Collectors.toList());
+        return memberRepository.findAllById(ids).stream().map(Member::getAge).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,133 @@
+package study.datajpa.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 커밋된 데이터만 저장하므로 트랜잭션 롤백 테스트가 아닌 트랜잭션 단위로 커밋하며 확인
+ */
+@SpringBootTest
+class MemberCacheTest {
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Member member;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Team team = teamRepository.save(new Team("cacheTeam"));
+        member = memberRepository.save(new Member("cacheMember", 1000, team));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteById(member.getId());
+        teamRepository.deleteById(member.getTeam().getId());
+    }
+
+    @Test
+    public void findByIdHitsCache() {
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(member.getId()).get().getTeam().getName());//DB 조회 후 캐시 저장
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        String teamName = transactionTemplate.execute(status ->
+                memberRepository.findById(member.getId()).get().getTeam().getName());
+
+        assertThat(teamName).isEqualTo("cacheTeam");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(hits + 2);//member, team
+    }
+
+    @Test
+    public void bulkUpdateEvictsCache() {
+        memberRepository.findById(member.getId());
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkUpdate(1000));
+
+        long misses = statistics.getSecondLevelCacheMissCount();
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(1001);
+        assertThat(statistics.getSecondLevelCacheMissCount()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    public void cachedQuery() {
+        memberRepository.findMemberDto("cacheMember");
+
+        long hits = statistics.getQueryCacheHitCount();
+        List<MemberDto> result = memberRepository.findMemberDto("cacheMember");
+        assertThat(result).extracting("age").containsExactly(1000);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 1);
+
+        //Member 변경 시 무효화
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkUpdate(1000));
+        long misses = statistics.getQueryCacheMissCount();
+        assertThat(memberRepository.findMemberDto("cacheMember")).extracting("age").containsExactly(1001);
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    public void changeTeamEvictsMembersCollection() {
+        Long teamId = member.getTeam().getId();
+        Team other = teamRepository.save(new Team("cacheOtherTeam"));
+        try {
+            membersOf(teamId);//컬렉션 캐시 저장
+
+            transactionTemplate.executeWithoutResult(status -> memberRepository.findById(member.getId()).get()
+                    .changeTeam(teamRepository.findById(other.getId()).get()));
+
+            //이전 팀 컬렉션 캐시에 남지 않는다.
+            assertThat(membersOf(teamId)).doesNotContain(member.getId());
+            assertThat(membersOf(other.getId())).containsExactly(member.getId());
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> memberRepository.findById(member.getId()).get()
+                    .changeTeam(teamRepository.findById(teamId).get()));
+            teamRepository.deleteById(other.getId());
+        }
+    }
+
+    @Test
+    public void changeTeamDoesNotLoadPreviousMembers() {
+        Long teamId = member.getTeam().getId();
+        Team other = teamRepository.save(new Team("cacheOtherTeam"));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Member found = memberRepository.findById(member.getId()).get();
+                Team previous = found.getTeam();
+                found.changeTeam(teamRepository.findById(other.getId()).get());
+
+                //로딩되지 않은 이전 팀 컬렉션은 그대로 둔다. (2차 캐시는 auto_evict_collection_cache)
+                assertThat(Hibernate.isInitialized(previous.getMembers())).isFalse();
+            });
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> memberRepository.findById(member.getId()).get()
+                    .changeTeam(teamRepository.findById(teamId).get()));
+            teamRepository.deleteById(other.getId());
+        }
+    }
+
+    private List<Long> membersOf(Long teamId) {
+        return transactionTemplate.execute(status -> teamRepository.findById(teamId).get().getMembers().stream()
+                .map(Member::getId)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,150 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.UsernameOnlyDto;
+import study.datajpa.monitor.SqlStatementScope;
+import study.datajpa.monitor.SqlStatements;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MemberRepository 쿼리 실행 계획 회귀 테스트 (H2 EXPLAIN)
+ * - 조건(where)이 있는 쿼리가 인덱스 없이 테이블 전체를 읽으면(tableScan) 실패
+ * - 조건 없이 정렬(order by)하는 쿼리(age desc, id 페이징)가 인덱스 순서로 읽지 않으면(index sorted) 실패
+ * - 쿼리 메서드를 추가하면 QUERIES에도 추가해야 한다. (누락 시 실패), SQL을 하나도 실행하지 않아도 실패 (2차/쿼리 캐시는 매번 비운다)
+ */
+@SpringBootTest
+@Transactional
+class MemberQueryPlanTest {
+    private static final PageRequest PAGE = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "age").and(Sort.by("id")));
+    private static final MemberCursor CURSOR = new MemberCursor(20, 5L);
+
+    // 조회 쿼리가 아닌 메서드 (쓰기 전용, 별도 스레드 실행)
+    private static final Set<String> NOT_QUERIES = new HashSet<>(Arrays.asList("saveAllBatched", "bulkUpdateInChunks"));
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManagerFactory emf;
+
+    private Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByUsername", () -> memberRepository.findByUsername("member1"));
+        queries.put("findUser", () -> memberRepository.findUser("member1"));
+        queries.put("findByUsernameAndAge", () -> memberRepository.findByUsernameAndAge("member1", 10));
+        queries.put("findByUsernames", () -> memberRepository.findByUsernames(Arrays.asList("member1", "member2")));
+        queries.put("findMemberDto", () -> memberRepository.findMemberDto("member1"));
+        queries.put("findMemberByUsername", () -> memberRepository.findMemberByUsername("member1"));
+        queries.put("findByAge", () -> {
+            memberRepository.findByAge(10, PAGE);
+            memberRepository.findByAge(10, CURSOR, 10);
+            memberRepository.findByAge(10, PAGE, CountMode.EXACT);
+        });
+        queries.put("findByAge2", () -> memberRepository.findByAge2(10, PAGE));
+        queries.put("bulkUpdate", () -> memberRepository.bulkUpdate(5000));
+        queries.put("findAll", () -> {
+            memberRepository.findAll();
+            memberRepository.findAll(PAGE, CountMode.EXACT);
+        });
+        queries.put("findFetchByUsername", () -> memberRepository.findFetchByUsername("member1"));
+        queries.put("findReadOnlyByUsername", () -> memberRepository.findReadOnlyByUsername("member1"));
+        queries.put("streamAllDto", () -> {
+            try (Stream<?> stream = memberRepository.streamAllDto()) {
+                stream.count();
+            }
+        });
+        queries.put("findAllDto", () -> memberRepository.findAllDto(PAGE));
+        queries.put("findProjectionsByUsername", () -> memberRepository.findProjectionsByUsername("member1"));
+        queries.put("findUsernameDtoByUsername", () -> memberRepository.findUsernameDtoByUsername("member1"));
+        queries.put("findUsernameByUsername", () -> memberRepository.findUsernameByUsername("member1", UsernameOnlyDto.class));
+        queries.put("findNestedProjectionsByUsername", () -> memberRepository.findNestedProjectionsByUsername("member1"));
+        queries.put("findByNativeQuery", () -> memberRepository.findByNativeQuery("member1"));
+        queries.put("findByNativeProjection", () -> memberRepository.findByNativeProjection("member1", PageRequest.of(1, 10)));
+        queries.put("findMemberProjections", () -> {
+            memberRepository.findMemberProjections("member1", PageRequest.of(1, 10));
+            memberRepository.findMemberProjections("member1", PageRequest.of(1, 10), CountMode.EXACT);
+        });
+        queries.put("search", () -> {
+            memberRepository.search(new MemberSearchCondition("member1", null, null, null), PAGE, CountMode.EXACT);
+            memberRepository.search(new MemberSearchCondition(null, 10, 20, null), PAGE, CountMode.EXACT);
+            memberRepository.search(new MemberSearchCondition(null, null, null, "teamA"), PAGE, CountMode.EXACT);
+        });
+        queries.put("findMemberCustom", () -> memberRepository.findMemberCustom());
+        queries.put("findAllByKeyset", () -> {
+            memberRepository.findAllByKeyset(null, 10);
+            memberRepository.findAllByKeyset(CURSOR, 10);
+        });
+        queries.put("findByUsernamesInChunks", () -> memberRepository.findByUsernamesInChunks(Arrays.asList("member1", "member2")));
+        return queries;
+    }
+
+    @Test
+    public void allQueriesCovered() {
+        Set<String> methods = Stream.of(MemberRepository.class, MemberRepositoryCustom.class)
+                .flatMap(type -> Arrays.stream(type.getDeclaredMethods()))
+                .map(Method::getName)
+                .filter(name -> !NOT_QUERIES.contains(name))
+                .collect(Collectors.toSet());
+
+        assertThat(queries().keySet()).containsAll(methods);
+    }
+
+    @Test
+    public void noTableScan() {
+        List<String> violations = new ArrayList<>();
+        queries().forEach((name, query) -> {
+            emf.getCache().evictAll();//캐시 hit이면 SQL 없이 통과하므로
+            List<String> statements;
+            try (SqlStatementScope scope = SqlStatements.capture(name)) {
+                query.run();
+                statements = scope.getStatements();
+            }
+            if (statements.isEmpty()) {
+                violations.add(name + " :: 실행된 SQL 없음");
+            }
+            for (String sql : statements) {
+                String violation = violation(sql);
+                if (violation != null) {
+                    violations.add(name + " :: " + violation);
+                }
+            }
+        });
+
+        assertThat(violations).isEmpty();
+    }
+
+    // 조건도 정렬도 없는 전체 조회/count, insert, 시퀀스 호출은 검사 제외
+    private String violation(String sql) {
+        String normalized = sql.trim().toLowerCase();
+        boolean query = normalized.startsWith("select") || normalized.startsWith("update") || normalized.startsWith("delete");
+        if (!query) {
+            return null;
+        }
+        if (normalized.contains(" where ")) {
+            String plan = explain(sql);
+            return plan.contains(".tableScan") ? plan : null;
+        }
+        if (normalized.contains(" order by ")) {
+            String plan = explain(sql);
+            return plan.contains("index sorted") ? null : plan;
+        }
+        return null;
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+}
@@ -0,0 +1,87 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberProjection;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * R2DBC 커넥션은 JPA 트랜잭션과 별개라서 커밋된 데이터로 확인 (다른 테스트 데이터와 겹치지 않도록 age 6000 사용)
+ */
+@SpringBootTest
+class MemberReactiveRepositoryTest {
+    private static final int AGE = 6000;
+
+    @Autowired MemberReactiveRepository memberReactiveRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    private Team team;
+    private List<Member> members;
+
+    @BeforeEach
+    public void setUp() {
+        team = teamRepository.save(new Team("reactiveTeam"));
+        members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("reactiveMember" + (i % 2), AGE, i < 5 ? team : null));
+        }
+        members = memberRepository.saveAll(members);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        //detached 엔티티 merge 없이 삭제
+        memberRepository.deleteInBatch(members);
+        teamRepository.deleteInBatch(List.of(team));
+    }
+
+    @Test
+    public void findByAge() {
+        List<MemberDto> result = memberReactiveRepository.findByAge(AGE).collectList().block();
+
+        assertThat(result).hasSize(10);
+        assertThat(result).extracting(MemberDto::getId).isSorted()
+                .containsExactlyInAnyOrderElementsOf(members.stream().map(Member::getId)::iterator);
+    }
+
+    @Test
+    public void findByUsername() {
+        List<MemberDto> result = memberReactiveRepository.findByUsername("reactiveMember0").collectList().block();
+
+        assertThat(result).hasSize(5).allMatch(dto -> dto.getAge() == AGE && dto.getUsername().equals("reactiveMember0"));
+    }
+
+    @Test
+    public void findProjectionsByUsername() {
+        List<MemberProjection> result = memberReactiveRepository.findProjectionsByUsername("reactiveMember0").collectList().block();
+
+        //reactiveMember0 :: i = 0, 2, 4 -> team, 6, 8 -> 팀 없음 (left outer join)
+        assertThat(result).extracting(MemberProjection::getTeamName)
+                .containsExactlyInAnyOrder("reactiveTeam", "reactiveTeam", "reactiveTeam", null, null);
+    }
+
+    @Test
+    public void backpressure() {
+        //요청한 만큼만 받는다.
+        StepVerifier.create(memberReactiveRepository.findByAge(AGE), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+}
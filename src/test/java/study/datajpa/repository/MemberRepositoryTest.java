@@ -1,6 +1,7 @@
 package study.datajpa.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,12 +11,18 @@ import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.*;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.monitor.LazyFetchMetrics;
+import study.datajpa.monitor.SqlStatementAssertions;
+import study.datajpa.monitor.SqlStatementScope;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -24,6 +31,8 @@ import static org.assertj.core.api.Assertions.*;
 @Rollback(false)
 class MemberRepositoryTest {
     @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired LazyFetchMetrics lazyFetchMetrics;
 
     @PersistenceContext
     private EntityManager em;
@@ -72,6 +81,32 @@ class MemberRepositoryTest {
         assertThat(findMember.get(1).getId()).isEqualTo(savedMember2.getId());
     }
 
+    @Test
+    @Rollback
+    public void findByUsernamesInChunks(){
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            members.add(new Member("inChunk" + i, 10));
+        }
+        memberRepository.saveAll(members);
+        em.flush();
+        em.clear();
+
+        //IN 파라미터 3개, 4개 :: 4개로 padding 되어 같은 SQL
+        SqlStatementScope padded = SqlStatementAssertions.record(() -> {
+            memberRepository.findByUsernamesInChunks(Arrays.asList("inChunk0", "inChunk1", "inChunk2"));
+            memberRepository.findByUsernamesInChunks(Arrays.asList("inChunk0", "inChunk1", "inChunk2", "inChunk3"));
+        });
+        assertThat(padded.getShapes()).hasSize(1);
+
+        //chunk(512) 초과 :: 2번 나눠서 조회 후 합침 (중복 이름 제거)
+        List<String> names = members.stream().map(Member::getUsername).collect(Collectors.toList());
+        names.add("inChunk0");
+        SqlStatementScope chunked = SqlStatementAssertions.record(() ->
+                assertThat(memberRepository.findByUsernamesInChunks(names)).hasSize(600));
+        assertThat(chunked.getCount()).isEqualTo(2);
+    }
+
     @Test
     public void testFindMemberDto(){
         Member member = new Member("memberA");
@@ -124,6 +159,108 @@ class MemberRepositoryTest {
         assertThat(memberPage.getTotalPages()).isEqualTo(2);
     }
 
+    @Test
+    @Rollback
+    public void keysetPaging(){
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("keyset" + i, 77));
+        }
+
+        CursorSlice<Member> first = memberRepository.findByAge(77, null, 3);
+        CursorSlice<Member> second = memberRepository.findByAge(77, MemberCursor.decode(first.getNextCursor()), 3);
+
+        assertThat(first.getContent()).extracting("username").containsExactly("keyset0", "keyset1", "keyset2");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("keyset3", "keyset4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    @Rollback
+    public void keysetPagingRejectsInvalidInput(){
+        assertThatThrownBy(() -> memberRepository.findByAge(77, null, 0)).hasRootCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberRepository.findAllByKeyset(null, 0)).hasRootCauseInstanceOf(IllegalArgumentException.class);
+        //형식이 맞지 않는 커서 :: 400
+        assertThatThrownBy(() -> MemberCursor.decode("not a cursor")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> MemberCursor.decode("Zm9v")).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @Rollback
+    public void countMode(){
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("count" + i, 7));
+        }
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username"));
+
+        Page<Member> exact = memberRepository.findByAge(7, pageRequest, CountMode.EXACT);
+        Page<Member> cached = memberRepository.findByAge(7, pageRequest, CountMode.CACHED);
+
+        assertThat(exact.getTotalElements()).isEqualTo(5);
+        assertThat(cached.getTotalElements()).isEqualTo(5);
+        assertThat(cached.getContent()).extracting("username").containsExactly("count4", "count3");
+
+        Page<MemberProjection> projections = memberRepository.findMemberProjections("count0", PageRequest.of(0, 10), CountMode.CACHED);
+        assertThat(projections.getContent()).extracting("username").containsExactly("count0");
+        assertThat(memberRepository.findAll(pageRequest, CountMode.ESTIMATED).getContent()).hasSize(2);
+
+        //save, 벌크 연산 후 캐시 무효화
+        memberRepository.save(new Member("count5", 7));
+        assertThat(memberRepository.findByAge(7, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(6);
+
+        memberRepository.bulkUpdate(7);
+        assertThat(memberRepository.findByAge(7, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(0);
+    }
+
+    @Test
+    @Rollback
+    public void saveAllBatched(){
+        Team teamA = new Team("batchTeamA");
+        Team teamB = new Team("batchTeamB");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, 8, i % 2 == 0 ? teamA : teamB));
+        }
+
+        int saved = memberRepository.saveAllBatched(members, 100);
+
+        assertThat(saved).isEqualTo(250);
+        assertThat(teamA.getId()).isNotNull();
+        assertThat(memberRepository.findByAge(8, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(250);
+    }
+
+    @Test
+    @Rollback
+    public void saveAllBatchedKeepsCallerEntities(){
+        Member caller = memberRepository.save(new Member("batchCaller", 9));
+
+        memberRepository.saveAllBatched(Arrays.asList(new Member("batchOther1", 9), new Member("batchOther2", 9)), 1);
+
+        //호출한 쪽 엔티티는 영속 상태 유지 :: 이후 변경 반영
+        assertThat(em.contains(caller)).isTrue();
+        caller.setUsername("batchCallerChanged");
+        em.flush();
+        em.clear();
+        assertThat(memberRepository.findById(caller.getId()).get().getUsername()).isEqualTo("batchCallerChanged");
+        assertThatThrownBy(() -> memberRepository.saveAllBatched(Arrays.asList(new Member("batchZero", 9)), 0))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @Rollback
+    public void streamAllDto(){
+        Member memberA = memberRepository.save(new Member("streamA", 10));
+        Member memberB = memberRepository.save(new Member("streamB", 11));
+
+        try (Stream<MemberDto> stream = memberRepository.streamAllDto()) {
+            List<MemberDto> result = stream.filter(dto -> dto.getUsername().startsWith("stream"))
+                    .collect(Collectors.toList());
+
+            assertThat(result).extracting("id").containsExactly(memberA.getId(), memberB.getId());
+        }
+    }
+
     @Test
     public void bulkUpdate() {
         Member memberA = new Member("memberA", 10);
@@ -144,7 +281,7 @@ class MemberRepositoryTest {
         //******************* JPA 기본제공 findById *******************//
         //Process 2-1. 영속성컨텍스트 조회
         //Process 2-2. 영속성컨텍스트 없으면 DB SELECT, 있으면 영속성컨텍스트 리턴
-        Optional<Member> member1 = memberRepository.findById(1l);
+        Optional<Member> member1 = memberRepository.findById(savedMemberA.getId());
         System.out.println("member1 = " + member1.get().toString());
 
         //******************* 개발자 custom JPQL *******************//
@@ -188,6 +325,59 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @Rollback
+    public void detectNPlusOne(){
+        for (int i = 0; i < 6; i++) {
+            Team team = new Team("nPlusOneTeam" + i);
+            em.persist(team);
+            memberRepository.save(new Member("nPlusOne" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        //회원마다 조회 :: 같은 모양의 select 반복
+        SqlStatementScope scope = SqlStatementAssertions.record(() -> {
+            for (int i = 0; i < 6; i++) {
+                memberRepository.findMemberByUsername("nPlusOne" + i);
+            }
+        });
+        assertThat(scope.getRepeatedShapes()).isNotEmpty();
+        em.clear();
+
+        //지연 로딩 team :: default_batch_fetch_size로 team 프록시를 IN 절로 한 번에 조회
+        SqlStatementAssertions.assertNoRepeatedStatements(() -> memberRepository.findMemberCustom()
+                .stream().filter(member -> member.getTeam() != null)
+                .forEach(member -> member.getTeam().getName()));
+        em.clear();
+
+        //fetch join(entity graph) :: 한 번에 조회
+        SqlStatementAssertions.assertStatementCount(1, () -> memberRepository.findAll()
+                .stream().filter(member -> member.getTeam() != null)
+                .forEach(member -> member.getTeam().getName()));
+    }
+
+    @Test
+    @Rollback
+    public void batchFetchTeamMembers(){
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Team team = new Team("batchTeam" + i);
+            em.persist(team);
+            teamIds.add(team.getId());
+            memberRepository.save(new Member("batchMember" + i, 10, team));
+            memberRepository.save(new Member("batchMember" + i, 20, team));
+        }
+        em.flush();
+        em.clear();
+        long fetches = lazyFetchMetrics.snapshot().get("Team.members");
+
+        //team 조회 1 + 초기화 안 된 members 컬렉션 6개를 IN 절로 1
+        SqlStatementAssertions.assertStatementCount(2, () -> teamRepository.findAllById(teamIds)
+                .forEach(team -> assertThat(team.getMembers()).hasSize(2)));
+        assertThat(lazyFetchMetrics.snapshot().get("Team.members")).isEqualTo(fetches + 1);
+    }
+
     @Test
     public void queryHintTest() {
         Member memberA = new Member("memberA", 10);
@@ -215,6 +405,29 @@ class MemberRepositoryTest {
         em.clear();
     }
 
+    @Test
+    @Rollback
+    public void readOnlyQuery() {
+        memberRepository.save(new Member("readOnlyMember", 10));
+        memberRepository.save(new Member("writableMember", 10));
+        em.flush();
+        em.clear();
+
+        // 쓰기 트랜잭션 안 :: @ReadOnlyQuery로 조회한 엔티티만 read-only
+        Session session = em.unwrap(Session.class);
+        Member readOnly = memberRepository.findReadOnlyByUsername("readOnlyMember").get(0);
+        Member writable = memberRepository.findByUsername("writableMember").get(0);
+
+        assertThat(session.isReadOnly(readOnly)).isTrue();
+        assertThat(session.isReadOnly(writable)).isFalse();
+        assertThat(session.isDefaultReadOnly()).isFalse();
+
+        readOnly.setAge(99);//변경 감지 제외
+        em.flush();
+        em.clear();
+        assertThat(memberRepository.findByUsername("readOnlyMember").get(0).getAge()).isEqualTo(10);
+    }
+
     @Test
     public void customRepositoryTest() {
         Member memberA = new Member("memberA", 10);
@@ -304,6 +517,88 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @Rollback
+    public void findAllDto() {
+        Team team = new Team("dtoTeam");
+        em.persist(team);
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("dtoMember" + i, 30 + i % 2, team));
+        }
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age").and(Sort.by("username")));
+
+        Page<MemberDto> expected = memberRepository.findAll(pageRequest).map(MemberDto::new);
+        em.clear();
+        SqlStatementScope scope = SqlStatementAssertions.record(() -> {
+            Page<MemberDto> page = memberRepository.findAllDto(pageRequest);
+
+            //엔티티 조회 + map(MemberDto::new)와 같은 정렬/페이지, 영속성 컨텍스트에 엔티티를 올리지 않는다.
+            assertThat(page.getContent()).isEqualTo(expected.getContent());
+            assertThat(page.getTotalElements()).isEqualTo(expected.getTotalElements());
+            assertThat(page.getSort()).isEqualTo(pageRequest.getSort());
+            assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        });
+        assertThat(scope.getCount()).isEqualTo(2);//content + count
+    }
+
+    @Test
+    @Rollback
+    public void closedProjectionSelectsReferencedColumns() {
+        Team team = new Team("closedProjectionTeam");
+        em.persist(team);
+        memberRepository.save(new Member("closedProjection", 10, team));
+        memberRepository.save(new Member("closedProjection", 11));
+        em.flush();
+        em.clear();
+
+        SqlStatementScope scope = SqlStatementAssertions.record(() -> {
+            List<NestedClosedProjection> nested = memberRepository.findNestedProjectionsByUsername("closedProjection");
+
+            //프록시가 아닌 불변 DTO, 팀이 없으면 team은 null
+            assertThat(nested).allMatch(p -> p instanceof NestedClosedProjectionDto);
+            assertThat(nested).extracting(p -> p.getTeam() == null ? null : p.getTeam().getName())
+                    .containsExactlyInAnyOrder("closedProjectionTeam", null);
+
+            Page<MemberProjection> page = memberRepository.findMemberProjections("closedProjection", PageRequest.of(0, 10, Sort.by("age")));
+            assertThat(page.getTotalElements()).isEqualTo(2);
+            assertThat(page.getContent()).allMatch(p -> p instanceof MemberProjectionDto);
+            assertThat(page.getContent()).extracting(MemberProjection::getTeamName).containsExactly("closedProjectionTeam", null);
+        });
+
+        //엔티티 전체 컬럼(version, 감사 컬럼)을 select하지 않는다.
+        assertThat(scope.getCount()).isEqualTo(2);
+        assertThat(scope.getShapes().keySet()).noneMatch(sql -> sql.contains("version") || sql.contains("created_by"));
+    }
+
+    @Test
+    @Rollback
+    public void openProjection() {
+        Team team = new Team("openProjectionTeam");
+        em.persist(team);
+        for (int i = 0; i < 3; i++) {
+            memberRepository.save(new Member("openProjection", 20 + i, team));
+        }
+        em.flush();
+        em.clear();
+
+        //컴파일 모드 전환 이후에도 같은 결과, team은 같은 쿼리에서 fetch
+        for (int i = 0; i < 200; i++) {
+            SqlStatementScope scope = SqlStatementAssertions.record(() -> {
+                List<String> usernames = memberRepository.findProjectionsByUsername("openProjection").stream()
+                        .map(UsernameOnly::getUsername)
+                        .collect(Collectors.toList());
+                assertThat(usernames).containsExactlyInAnyOrder(
+                        "openProjection 20 openProjectionTeam",
+                        "openProjection 21 openProjectionTeam",
+                        "openProjection 22 openProjectionTeam");
+            });
+            assertThat(scope.getCount()).isEqualTo(1);
+            em.clear();
+        }
+    }
+
     @Test
     public void findNativeQuery() {
         Member memberA = new Member("memberA", 10);
@@ -0,0 +1,125 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberSearchTest {
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "age"));
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+
+    @BeforeEach
+    public void setUp() {
+        Team teamA = new Team("searchTeamA");
+        Team teamB = new Team("searchTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("searchMember" + i, 8000 + i, i % 2 == 0 ? teamA : teamB));
+        }
+        memberRepository.save(new Member("searchMember0", 8100));//팀 없음
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void searchByConditions() {
+        Page<Member> page = memberRepository.search(new MemberSearchCondition(null, 8003, 8008, "searchTeamA"), PAGE, CountMode.EXACT);
+
+        assertThat(page.getContent()).extracting(Member::getAge).containsExactly(8008, 8006, 8004);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void sortByTeamNameKeepsMembersWithoutTeam() {
+        Page<Member> page = memberRepository.search(new MemberSearchCondition("searchMember0", null, null, ""),
+                PageRequest.of(0, 10, Sort.by("teamName")), CountMode.EXACT);
+
+        //team 정렬만 있으면 left join, 빈 문자열 조건은 제외
+        assertThat(page.getContent()).extracting(Member::getAge).containsExactlyInAnyOrder(8000, 8100);
+    }
+
+    @Test
+    public void reusePlanForSameShape() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        memberRepository.search(new MemberSearchCondition("searchMember1", 8000, null, null), PAGE, CountMode.EXACT);
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        //값만 다른 같은 조합 :: JPQL이 같으므로 플랜 캐시 hit
+        memberRepository.search(new MemberSearchCondition("searchMember2", 8001, null, null), PAGE, CountMode.EXACT);
+        memberRepository.search(new MemberSearchCondition("searchMember3", 8002, null, null), PAGE, CountMode.EXACT);
+
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+    }
+
+    @Test
+    public void cachedCountEvictedByDirtyChecking() {
+        MemberSearchCondition teamA = new MemberSearchCondition(null, null, null, "searchTeamA");
+        PageRequest page = PageRequest.of(0, 2, Sort.by("id"));
+        assertThat(memberRepository.search(teamA, page, CountMode.CACHED).getTotalElements()).isEqualTo(5);
+
+        Member member = em.createQuery("select m from Member m where m.age = 8001", Member.class).getSingleResult();
+        member.changeTeam(em.createQuery("select t from Team t where t.name = 'searchTeamA'", Team.class).getSingleResult());
+
+        //리포지토리 save 없이 dirty checking으로 변경 :: 조회 전 flush에서 EntityWriteEvent -> 캐시된 count 무효화
+        assertThat(memberRepository.search(teamA, page, CountMode.CACHED).getTotalElements()).isEqualTo(6);
+    }
+
+    @Test
+    public void rejectUnknownSortProperty() {
+        assertThatThrownBy(() -> memberRepository.search(new MemberSearchCondition(), PageRequest.of(0, 10, Sort.by("createdBy")), CountMode.EXACT))
+                .isInstanceOf(UnsortablePropertyException.class);
+    }
+
+    @Test
+    public void dedupeSortOrders() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        String shape = new MemberSearchQuery(condition, Sort.by(Sort.Order.desc("age"))).shape();
+
+        //같은 속성은 처음 것만, id 이후 정렬은 버림
+        assertThat(new MemberSearchQuery(condition, Sort.by(Sort.Order.desc("age"), Sort.Order.asc("age"))).shape()).isEqualTo(shape);
+        assertThat(new MemberSearchQuery(condition, Sort.by(Sort.Order.desc("age"), Sort.Order.asc("id"), Sort.Order.asc("username"))).shape()).isEqualTo(shape);
+        assertThat(shape).isEqualTo(" order by age DESC,id ASC");
+        assertThatThrownBy(() -> new MemberSearchQuery(condition, Sort.by("id", "createdBy"))).isInstanceOf(UnsortablePropertyException.class);
+    }
+
+    @Test
+    public void evictShapes() {
+        QueryShapeRegistry registry = new QueryShapeRegistry(2, new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        registry.register("search", "username order by id ASC");
+        registry.register("search", "age order by id ASC");
+        registry.register("search", "username order by id ASC");
+
+        //상한을 넘어도 거절하지 않고 모양 수는 max-shapes로 유지
+        registry.register("search", "teamName order by id ASC");
+        registry.register("search", "teamName order by id ASC");
+
+        Map<String, Object> summary = registry.snapshot().get("search");
+        assertThat(summary).containsEntry("shapes", 2L);
+        assertThat((long) summary.get("hits") + (long) summary.get("misses")).isEqualTo(5);
+    }
+}
@@ -0,0 +1,82 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import study.datajpa.entity.Member;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageCounterTest {
+    private final PageCounter pageCounter = new PageCounter(null, null, Duration.ofHours(1), 10, 1);
+    private final AtomicLong executed = new AtomicLong();
+
+    @AfterEach
+    public void tearDown() {
+        pageCounter.shutdown();
+    }
+
+    @Test
+    public void cachedPerParams() {
+        assertThat(count("search", "a")).isEqualTo(1);
+        assertThat(count("search", "a")).isEqualTo(1);
+        assertThat(count("search", "b")).isEqualTo(2);
+
+        pageCounter.evict(Member.class);
+        assertThat(count("search", "a")).isEqualTo(3);
+    }
+
+    @Test
+    public void keyIsStructural() {
+        //문자열로 이어 붙이면 같은 키 ("[a, b]")
+        assertThat(count("search", "a, b")).isEqualTo(1);
+        assertThat(count("search", "a", "b")).isEqualTo(2);
+        assertThat(count("search", (Object) null)).isEqualTo(3);
+        assertThat(count("search", "null")).isEqualTo(4);
+    }
+
+    @Test
+    public void bounded() {
+        for (int i = 0; i < 100; i++) {
+            count("search", "user" + i);
+        }
+
+        assertThat(executed.get()).isEqualTo(100);
+        assertThat(pageCounter.cachedSize(Member.class)).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    public void evictedAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(count("search", "a")).isEqualTo(1);
+            pageCounter.onWrite(new EntityWriteEvent(Member.class));
+            pageCounter.onWrite(new EntityWriteEvent(Member.class));
+            //커밋 전에 다른 요청이 이전 데이터로 다시 캐시
+            assertThat(count("search", "a")).isEqualTo(2);
+            assertThat(count("search", "a")).isEqualTo(2);
+
+            //엔티티마다 발행되어도 커밋 후 무효화는 트랜잭션당 1번 등록
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertThat(count("search", "a")).isEqualTo(3);
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // count를 실행할 때마다 실행 횟수를 반환 :: 캐시 hit이면 이전 값
+    private long count(String name, Object... params) {
+        return pageCounter.page(PageRequest.of(0, 1), () -> Collections.singletonList("row"),
+                CountQuery.filtered(Member.class, name, executed::incrementAndGet, params), CountMode.CACHED)
+                .getTotalElements();
+    }
+}